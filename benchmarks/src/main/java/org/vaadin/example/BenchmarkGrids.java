@@ -0,0 +1,84 @@
+package org.vaadin.example;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.grid.Grid;
+import org.vaadin.example.gridsettings.GridLayout;
+import org.vaadin.example.gridsettings.GridSettingsStore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+
+/**
+ * Grid and columns manager fixtures for benchmarks
+ */
+final class BenchmarkGrids {
+
+    static final String COLUMN_KEY_PREFIX = "COLUMN_";
+
+    private BenchmarkGrids() {
+    }
+
+
+    /**
+     * Manager with registered columns, it is not initialized
+     */
+    static VaadinGridColumnsManager04<Integer> createManager(int columnCount, String gridId) {
+        Grid<Integer> grid = new Grid<>();
+        VaadinGridColumnsManager04<Integer> manager = new VaadinGridColumnsManager04<>(grid, gridId);
+        registerColumns(manager, grid, columnCount);
+        return manager;
+    }
+
+
+    static void registerColumns(VaadinGridColumnsManager04<Integer> manager, Grid<Integer> grid, int columnCount) {
+        for (int i = 0; i < columnCount; i++) {
+            int multiplier = i;
+            manager.registerColumn(COLUMN_KEY_PREFIX + i, "Column " + i,
+                    () -> grid.addColumn(row -> row * multiplier)
+                            .setWidth("60px").setSortable(true).setResizable(true));
+        }
+    }
+
+
+    /**
+     * Fresh current UI. Manager shows notification on every save, and they are collected by UI,
+     * so UI must be replaced regularly (every iteration).
+     */
+    static void setCurrentUi() {
+        UI.setCurrent(new UI());
+    }
+
+
+    /**
+     * In-memory store, so benchmarks measure manager and not the disk
+     */
+    static class InMemorySettingsStore implements GridSettingsStore {
+
+        private final Map<String, GridLayout> layouts = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<GridLayout> load(String settingsName) {
+            return Optional.ofNullable(layouts.get(settingsName));
+        }
+
+        @Override
+        public void save(String settingsName, GridLayout layout) {
+            layouts.put(settingsName, layout);
+        }
+
+        @Override
+        public List<String> getSettingsNames(String prefix) {
+            return layouts.keySet().stream()
+                    .filter(settingsName -> settingsName.startsWith(prefix))
+                    .collect(Collectors.toList());
+        }
+
+        void remove(String settingsName) {
+            layouts.remove(settingsName);
+        }
+    }
+}
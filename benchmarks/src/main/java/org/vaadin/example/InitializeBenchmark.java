@@ -0,0 +1,94 @@
+package org.vaadin.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vaadin.example.gridsettings.FileGridSettingsStore;
+import org.vaadin.example.gridsettings.GridSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Manager initialization: loading of layout and creation of visible columns.
+ * ABSENT - there are no saved settings (default layout is created and saved),
+ * FILE - settings are read from file store,
+ * CACHED - settings are taken from shared layouts cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class InitializeBenchmark {
+
+    private static final String GRID_ID = "InitializeBenchmark";
+    private static final String SETTINGS_NAME = "v4_" + GRID_ID;
+
+    public enum Source {ABSENT, FILE, CACHED}
+
+    @Param({"20", "200", "1000"})
+    private int columnCount;
+
+    @Param({"ABSENT", "FILE", "CACHED"})
+    private Source source;
+
+    private Path settingsFolder;
+    private BenchmarkGrids.InMemorySettingsStore inMemoryStore;
+    private VaadinGridColumnsManager04<Integer> manager;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        BenchmarkGrids.setCurrentUi();
+        settingsFolder = Files.createTempDirectory("grid-settings-benchmark");
+        inMemoryStore = new BenchmarkGrids.InMemorySettingsStore();
+        GridSettings.setStore(source == Source.FILE ? new FileGridSettingsStore(settingsFolder) : inMemoryStore);
+        // Saved settings for FILE and CACHED
+        BenchmarkGrids.createManager(columnCount, GRID_ID).initialize();
+        GridSettings.getWriter().flushAll();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        BenchmarkGrids.setCurrentUi();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        manager = BenchmarkGrids.createManager(columnCount, GRID_ID);
+        if (source == Source.CACHED) return;
+        GridSettings.getWriter().flushAll();
+        GridSettings.getCache().invalidate(SETTINGS_NAME);
+        if (source == Source.ABSENT) inMemoryStore.remove(SETTINGS_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        GridSettings.getWriter().flushAll();
+        try (Stream<Path> paths = Files.walk(settingsFolder)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public VaadinGridColumnsManager04<Integer> initialize() {
+        manager.initialize();
+        return manager;
+    }
+}
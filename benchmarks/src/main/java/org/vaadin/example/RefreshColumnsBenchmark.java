@@ -0,0 +1,69 @@
+package org.vaadin.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vaadin.example.gridsettings.GridSettings;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Columns reconciliation after menu closing:
+ * NONE - nothing is changed, WIDTH - one column width is changed, VISIBILITY - one column is hidden/shown.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RefreshColumnsBenchmark {
+
+    public enum Change {NONE, WIDTH, VISIBILITY}
+
+    @Param({"20", "200", "1000"})
+    private int columnCount;
+
+    @Param({"NONE", "WIDTH", "VISIBILITY"})
+    private Change change;
+
+    private VaadinGridColumnsManager04<Integer> manager;
+    private VaadinGridColumnsManager04.ColumnParams<Integer> changedColumn;
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        BenchmarkGrids.setCurrentUi();
+        GridSettings.setStore(new BenchmarkGrids.InMemorySettingsStore());
+        manager = BenchmarkGrids.createManager(columnCount, "RefreshColumnsBenchmark");
+        manager.initialize();
+        changedColumn = manager.getActualColumnsMap().get(BenchmarkGrids.COLUMN_KEY_PREFIX + columnCount / 2);
+    }
+
+    @Benchmark
+    public VaadinGridColumnsManager04<Integer> refreshColumns() {
+        toggle = !toggle;
+        switch (change) {
+            case WIDTH:
+                changedColumn.setWidth(toggle ? "61px" : "60px");
+                break;
+            case VISIBILITY:
+                changedColumn.setVisible(!toggle);
+                break;
+            default:
+                break;
+        }
+        manager.refreshColumns();
+        return manager;
+    }
+}
@@ -0,0 +1,48 @@
+package org.vaadin.example;
+
+import com.vaadin.flow.component.grid.Grid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Registering of all grid columns, as it is done on every view creation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RegisterColumnBenchmark {
+
+    @Param({"20", "200", "1000"})
+    private int columnCount;
+
+    private Grid<Integer> grid;
+    private VaadinGridColumnsManager04<Integer> manager;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        grid = new Grid<>();
+        manager = new VaadinGridColumnsManager04<>(grid, "RegisterColumnBenchmark");
+    }
+
+    @Benchmark
+    public VaadinGridColumnsManager04<Integer> registerColumns() {
+        BenchmarkGrids.registerColumns(manager, grid, columnCount);
+        return manager;
+    }
+}
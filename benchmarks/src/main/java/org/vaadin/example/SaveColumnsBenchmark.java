@@ -0,0 +1,73 @@
+package org.vaadin.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vaadin.example.gridsettings.GridSettings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Saving of settings (layout building and queueing for write-behind writer)
+ * and handling of columns reordered on client, which ends with saving too.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SaveColumnsBenchmark {
+
+    @Param({"20", "200", "1000"})
+    private int columnCount;
+
+    private VaadinGridColumnsManager04<Integer> manager;
+    private List<String> columnOrder;
+    private List<String> reversedColumnOrder;
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        BenchmarkGrids.setCurrentUi();
+        GridSettings.setStore(new BenchmarkGrids.InMemorySettingsStore());
+        manager = BenchmarkGrids.createManager(columnCount, "SaveColumnsBenchmark");
+        manager.initialize();
+        columnOrder = new ArrayList<>(manager.getActualColumnsMap().keySet());
+        // Columns manager column stays first
+        reversedColumnOrder = new ArrayList<>(columnOrder.subList(1, columnOrder.size()));
+        Collections.reverse(reversedColumnOrder);
+        reversedColumnOrder.add(0, columnOrder.get(0));
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        BenchmarkGrids.setCurrentUi();
+    }
+
+    @Benchmark
+    public VaadinGridColumnsManager04<Integer> saveColumns() {
+        manager.saveColumnsToFile();
+        return manager;
+    }
+
+    @Benchmark
+    public VaadinGridColumnsManager04<Integer> reorderColumns() {
+        toggle = !toggle;
+        manager.applyClientColumnOrder(new ArrayList<>(toggle ? reversedColumnOrder : columnOrder));
+        return manager;
+    }
+}
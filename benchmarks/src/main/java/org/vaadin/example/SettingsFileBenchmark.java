@@ -0,0 +1,93 @@
+package org.vaadin.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vaadin.example.gridsettings.ColumnSettings;
+import org.vaadin.example.gridsettings.FileGridSettingsStore;
+import org.vaadin.example.gridsettings.GridLayout;
+import org.vaadin.example.gridsettings.GridLayoutCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Settings serialization and file store reading/writing
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SettingsFileBenchmark {
+
+    private static final String SETTINGS_NAME = "v4_SettingsFileBenchmark";
+
+    @Param({"20", "200", "1000"})
+    private int columnCount;
+
+    private Path settingsFolder;
+    private FileGridSettingsStore store;
+    private GridLayout layout;
+    private byte[] encodedLayout;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        settingsFolder = Files.createTempDirectory("grid-settings-benchmark");
+        store = new FileGridSettingsStore(settingsFolder);
+        List<ColumnSettings> columns = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(new ColumnSettings(BenchmarkGrids.COLUMN_KEY_PREFIX + i, i % 3 != 0, (60 + i) + ".15625px"));
+        }
+        layout = new GridLayout(columns);
+        encodedLayout = GridLayoutCodec.encode(layout);
+        store.save(SETTINGS_NAME, layout);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        try (Stream<Path> paths = Files.walk(settingsFolder)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return GridLayoutCodec.encode(layout);
+    }
+
+    @Benchmark
+    public GridLayout decode() throws IOException {
+        return GridLayoutCodec.decode(encodedLayout);
+    }
+
+    @Benchmark
+    public Optional<GridLayout> readFile() throws IOException {
+        return store.load(SETTINGS_NAME);
+    }
+
+    @Benchmark
+    public GridLayout writeFile() throws IOException {
+        store.save(SETTINGS_NAME, layout);
+        return layout;
+    }
+}
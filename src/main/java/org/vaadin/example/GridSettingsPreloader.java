@@ -0,0 +1,158 @@
+package org.vaadin.example;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.spring.annotation.SpringComponent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.vaadin.example.gridsettings.GridLayout;
+import org.vaadin.example.gridsettings.GridLayoutCodec;
+import org.vaadin.example.gridsettings.GridSettings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Startup phase, that makes first opening of grids after deploy fast:
+ * most recently saved layouts are loaded into settings cache in parallel,
+ * then layout parsing and columns manager apply code are warmed up on loaded layouts.
+ * Everything is bounded by time budget, the rest is left for the first users.
+ * Enabled by "grid-settings.preload.enabled=true".
+ */
+@Slf4j
+@SpringComponent
+@ConditionalOnProperty(name = "grid-settings.preload.enabled", havingValue = "true")
+public class GridSettingsPreloader implements ApplicationRunner {
+
+    // Layouts used to warm up columns manager, every one is applied to new grid
+    private static final int WARMUP_GRIDS_COUNT = 20;
+    private static final int WARMUP_CODEC_ITERATIONS = 2_000;
+
+    private final int maxLayouts;
+    private final long timeBudgetMillis;
+    private final int parallelism;
+
+
+    public GridSettingsPreloader(@Value("${grid-settings.preload.max-layouts:1000}") int maxLayouts,
+                                 @Value("${grid-settings.preload.time-budget-ms:10000}") long timeBudgetMillis,
+                                 @Value("${grid-settings.preload.parallelism:4}") int parallelism) {
+        this.maxLayouts = maxLayouts;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.parallelism = parallelism;
+    }
+
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        List<String> loadedNames = preload(deadline);
+        warmUp(loadedNames, deadline);
+        log.info("Grid settings preloaded. Layouts count={}, elapsed ms={}", loadedNames.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+
+    /**
+     * Load recent layouts into settings cache
+     *
+     * @return names of loaded layouts
+     */
+    private List<String> preload(long deadline) {
+        List<String> loadedNames = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "grid-settings-preloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // Listing reads modification times of all layouts, so it is bounded by time budget too
+            Future<List<String>> recentNames = executor.submit(() -> GridSettings.getStore().getRecentSettingsNames(maxLayouts));
+            List<Future<?>> futures = new ArrayList<>();
+            for (String settingsName : recentNames.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                futures.add(executor.submit(() -> {
+                    if (System.nanoTime() - deadline >= 0) return;
+                    try {
+                        if (GridSettings.load(settingsName).isPresent()) loadedNames.add(settingsName);
+                    } catch (IOException e) {
+                        log.warn("Error while preloading grid settings. Setting file name={}", settingsName, e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException e) {
+            log.info("Grid settings preloading is stopped by time budget. Time budget ms={}", timeBudgetMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Error while preloading grid settings", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        synchronized (loadedNames) {
+            return new ArrayList<>(loadedNames);
+        }
+    }
+
+
+    /**
+     * Run layout parsing and columns manager on loaded layouts, so they are class-loaded and compiled by JIT
+     */
+    private void warmUp(List<String> loadedNames, long deadline) {
+        List<GridLayout> layouts = new ArrayList<>();
+        loadedNames.stream().limit(WARMUP_GRIDS_COUNT).forEach(settingsName -> {
+            try {
+                GridSettings.load(settingsName).ifPresent(layouts::add);
+            } catch (IOException e) {
+                log.warn("Error while loading grid settings for warm up. Setting file name={}", settingsName, e);
+            }
+        });
+        if (layouts.isEmpty()) return;
+        // Parsing
+        try {
+            for (int i = 0; i < WARMUP_CODEC_ITERATIONS && System.nanoTime() - deadline < 0; i++) {
+                GridLayoutCodec.decode(GridLayoutCodec.encode(layouts.get(i % layouts.size())));
+            }
+        } catch (IOException e) {
+            log.warn("Error while warming up grid settings parsing", e);
+        }
+        // Applying: grids with layout columns, managers are not attached and never save (layouts exist)
+        UI previousUi = UI.getCurrent();
+        try {
+            for (String settingsName : loadedNames.subList(0, Math.min(loadedNames.size(), WARMUP_GRIDS_COUNT))) {
+                if (System.nanoTime() - deadline >= 0 || !settingsName.startsWith(VaadinGridColumnsManager04.SETTINGS_NAME_PREFIX)) continue;
+                Optional<GridLayout> layout = GridSettings.load(settingsName);
+                if (!layout.isPresent()) continue;
+                UI.setCurrent(new UI());
+                Grid<Object> grid = new Grid<>();
+                // Ids are split back, so grid id is the metrics tag, as for user's grid
+                VaadinGridColumnsManager04<Object> manager = new VaadinGridColumnsManager04<>(grid,
+                        (Object[]) settingsName.substring(VaadinGridColumnsManager04.SETTINGS_NAME_PREFIX.length()).split("_", -1));
+                layout.get().getColumns().stream()
+                        .filter(columnSettings -> !manager.getRegisteredColumnsMap().containsKey(columnSettings.getKey()))
+                        .forEach(columnSettings -> manager.registerColumn(columnSettings.getKey(), columnSettings.getKey(),
+                                () -> grid.addColumn(row -> "").setResizable(true)));
+                manager.initialize();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error while warming up grid columns manager", e);
+        } finally {
+            UI.setCurrent(previousUi);
+        }
+    }
+}
@@ -8,13 +8,14 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.router.Route;
+import org.vaadin.example.countriesgrid.ProvincesData;
 import org.vaadin.example.countriesgrid.ProvincesGrid;
 
 @Route("")
 public class MainView extends VerticalLayout {
 
-    public MainView() {
-        ProvincesGrid provincesGrid = new ProvincesGrid();
+    public MainView(ProvincesData provincesData) {
+        ProvincesGrid provincesGrid = new ProvincesGrid(provincesData);
         add(provincesGrid.getComponent());
         setSizeFull();
     }
@@ -1,7 +1,9 @@
 package org.vaadin.example;
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.contextmenu.ContextMenu;
@@ -12,22 +14,28 @@ import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
-import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.vaadin.example.gridcolumns.FilterHeaderFactory;
+import org.vaadin.example.gridcolumns.GridColumn;
+import org.vaadin.example.gridcolumns.GridColumnDefinition;
+import org.vaadin.example.gridcolumns.GridColumnRegistry;
+import org.vaadin.example.gridmetrics.GridMetrics;
+import org.vaadin.example.gridsettings.ColumnSettings;
+import org.vaadin.example.gridsettings.GridLayout;
+import org.vaadin.example.gridsettings.GridLayoutHistory;
+import org.vaadin.example.gridsettings.GridSettings;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 /**
@@ -41,23 +49,18 @@ import java.util.stream.Stream;
 @CssImport(value = "./styles/vaadincomponents/vaadin-grid-columns-manager/vaadin-grid-columns-manager-shadow.css", themeFor = "vaadin-checkbox")
 public class VaadinGridColumnsManager04<T> {
 
-    private static final String OPERATOR_SETTINGS_FOLDER = "ui_params";
-
+    // Prefix of settings names of this manager version
+    static final String SETTINGS_NAME_PREFIX = "v4_";
     // Hidden column's name, for menu activating purpose
     private static final String COLUMNS_MANAGER = "#COLUMNS_MANAGER#";
+    // Layouts that can be undone
+    private static final int LAYOUT_HISTORY_SIZE = 20;
     private ContextMenu managerContextMenu;
-
-    // Создание папки для хранения настроек
-    static {
-        Path path = Paths.get(OPERATOR_SETTINGS_FOLDER);
-        if (!Files.exists(path)) {
-            try {
-                Files.createDirectory(path);
-            } catch (IOException e) {
-                log.error("Error while creating grids settings folder.", e);
-            }
-        }
-    }
+    private Button buttonUndo;
+    private Button buttonRedo;
+    // Flag that checkboxes are added to context menu, and their keys in menu order
+    private boolean managerContextMenuBuilt = false;
+    private final List<String> menuCheckboxKeys = new ArrayList<>();
 
 
     private final String gridSettingsFileName;
@@ -69,18 +72,40 @@ public class VaadinGridColumnsManager04<T> {
     private final Map<String, ColumnParams<T>> actualColumnsMap = Collections.synchronizedMap(new LinkedHashMap<>());
     // Flag that settings is loaded from file
     private boolean parametersLoaded = false;
+    // Flag that columns were changed by menu checkboxes since last save
+    private boolean columnsChanged = false;
+    // Saved layouts of this grid, for undo/redo
+    private final GridLayoutHistory layoutHistory = new GridLayoutHistory(LAYOUT_HISTORY_SIZE);
+    // Visible columns order and widths as they are in grid now, to send only changes to client
+    private final List<String> appliedColumnOrder = new ArrayList<>();
+    private final Map<String, String> appliedWidths = new HashMap<>();
+
+    // Metrics, tagged by grid id
+    private final Timer initializeTimer;
+    private final Timer refreshColumnsTimer;
+    private final Timer saveColumnsTimer;
+    private final Timer columnReorderTimer;
+    private final Timer columnResizeTimer;
+    private final Timer menuRebuildTimer;
 
 
     /**
      * Constructor
      *
      * @param tGrid - grid to manage
-     * @param ids   - String id collection to create filename
+     * @param ids   - String id collection to create filename. First id is grid id (metrics tag), others (user id...) are per user
      */
     public VaadinGridColumnsManager04(Grid<T> tGrid, Object... ids) {
         String join = Arrays.stream(ids).map(Object::toString).collect(Collectors.joining("_"));
-        this.gridSettingsFileName = "v4_" + join;
+        this.gridSettingsFileName = SETTINGS_NAME_PREFIX + join;
         this.tGrid = tGrid;
+        String gridId = ids.length > 0 ? ids[0].toString() : "";
+        initializeTimer = GridMetrics.timer(GridMetrics.MANAGER_INITIALIZE, gridId);
+        refreshColumnsTimer = GridMetrics.timer(GridMetrics.MANAGER_REFRESH_COLUMNS, gridId);
+        saveColumnsTimer = GridMetrics.timer(GridMetrics.MANAGER_SAVE_COLUMNS, gridId);
+        columnReorderTimer = GridMetrics.timer(GridMetrics.MANAGER_COLUMN_REORDER, gridId);
+        columnResizeTimer = GridMetrics.timer(GridMetrics.MANAGER_COLUMN_RESIZE, gridId);
+        menuRebuildTimer = GridMetrics.timer(GridMetrics.MANAGER_MENU_REBUILD, gridId);
 
         if (tGrid.isAttached()) {
             createListeners();
@@ -94,6 +119,9 @@ public class VaadinGridColumnsManager04<T> {
 
             });
         }
+        // Layout changed outside is applied while grid is attached
+        tGrid.getUI().ifPresent(this::listenLayoutChanges);
+        tGrid.addAttachListener(attachEvent -> listenLayoutChanges(attachEvent.getUI()));
         createColumnsManagerMenu();
     }
 
@@ -107,25 +135,60 @@ public class VaadinGridColumnsManager04<T> {
                 // Column keys for columns that already connected to grid (sorted)
                 List<String> columnKeys = new LinkedList<>();
                 columnReorderEvent.getColumns().forEach(tColumn -> columnKeys.add(tColumn.getKey()));
-                // Disconnected columns added at tail
-                registeredColumnsMap.keySet().forEach(columnKey -> {
-                    if (!columnKeys.contains(columnKey)) columnKeys.add(columnKey);
-                });
-                actualColumnsMap.clear();
-                columnKeys.forEach(columnKey -> actualColumnsMap.put(columnKey, registeredColumnsMap.get(columnKey)));
-                saveColumnsToFile();
-                reconstructManagerContextMenu();
+                columnReorderTimer.record(() -> applyClientColumnOrder(columnKeys));
             }
         });
 
-        tGrid.addColumnResizeListener(columnResizeEvent -> {
+        tGrid.addColumnResizeListener(columnResizeEvent -> columnResizeTimer.record(() -> {
             Grid.Column<T> resizedColumn = columnResizeEvent.getResizedColumn();
             actualColumnsMap.get(resizedColumn.getKey()).setWidth(resizedColumn.getWidth());
+            // Client already shows this width
+            appliedWidths.put(resizedColumn.getKey(), resizedColumn.getWidth());
             saveColumnsToFile();
+        }));
+    }
+
+
+    /**
+     * Layout changed outside (settings file edited or restored) is applied to grid until it is detached
+     */
+    private void listenLayoutChanges(UI ui) {
+        Registration registration = GridSettings.addLayoutListener(gridSettingsFileName,
+                gridLayout -> ui.access(() -> {
+                    applyLayout(gridLayout);
+                    reconstructManagerContextMenu();
+                    refreshColumns();
+                    // Layout is already saved
+                    columnsChanged = false;
+                    addToHistory(getCurrentLayout());
+                }));
+        tGrid.addDetachListener(detachEvent -> {
+            detachEvent.unregisterListener();
+            registration.remove();
         });
     }
 
 
+    /**
+     * Handling of columns order changed on client.
+     * Package-private for benchmarks.
+     *
+     * @param columnKeys - keys of columns connected to grid, in client order
+     */
+    void applyClientColumnOrder(List<String> columnKeys) {
+        // Client already shows this order
+        appliedColumnOrder.clear();
+        appliedColumnOrder.addAll(columnKeys);
+        // Disconnected columns added at tail
+        LinkedHashSet<String> orderedKeys = new LinkedHashSet<>(columnKeys);
+        orderedKeys.addAll(registeredColumnsMap.keySet());
+        actualColumnsMap.clear();
+        orderedKeys.forEach(columnKey -> actualColumnsMap.put(columnKey, registeredColumnsMap.get(columnKey)));
+        saveColumnsToFile();
+        reconstructManagerContextMenu();
+    }
+
+
     /**
      * Connect context menu for show manager cell. It is header of most left column.
      */
@@ -147,11 +210,15 @@ public class VaadinGridColumnsManager04<T> {
         managerContextMenu.getElement().setAttribute("theme", "grid-columns-manager");
         managerContextMenu.setOpenOnClick(true);
         managerContextMenu.addOpenedChangeListener(openedChangeEvent -> {
-            // Save columns settings on close
-            if (!openedChangeEvent.isOpened()) {
-                refreshColumns();
+            if (openedChangeEvent.isOpened() && !managerContextMenuBuilt) {
+                // Checkboxes are added on first opening
+                managerContextMenuBuilt = true;
                 reconstructManagerContextMenu();
+            }
+            // Save columns settings on close, saving refreshes columns
+            if (!openedChangeEvent.isOpened() && columnsChanged) {
                 saveColumnsToFile();
+                reconstructManagerContextMenu();
             }
         });
         // Header
@@ -163,45 +230,87 @@ public class VaadinGridColumnsManager04<T> {
         Button buttonAll = new Button("All");
         buttonAll.getElement().setAttribute("style", "margin: 0 3px; width: 100%;");
         HorizontalLayout hlButtons = new HorizontalLayout(buttonOne, buttonAll);
+        // Column of columns manager itself is always shown
         buttonOne.addClickListener(event -> {
-            actualColumnsMap.entrySet().stream().findFirst().ifPresent(entry -> entry.getValue().getCheckbox().setValue(true));
-            actualColumnsMap.entrySet().stream().skip(2).forEach(entry -> entry.getValue().getCheckbox().setValue(false));
+            LayoutUpdate layoutUpdate = beginUpdate();
+            List<String> columnKeys = getManagedColumnKeys();
+            columnKeys.stream().findFirst().ifPresent(key -> layoutUpdate.setVisible(key, true));
+            columnKeys.stream().skip(1).forEach(key -> layoutUpdate.setVisible(key, false));
+            layoutUpdate.commit();
+        });
+        buttonAll.addClickListener(event -> {
+            LayoutUpdate layoutUpdate = beginUpdate();
+            getManagedColumnKeys().forEach(key -> layoutUpdate.setVisible(key, true));
+            layoutUpdate.commit();
         });
-        buttonAll.addClickListener(event -> actualColumnsMap.forEach((key, value) -> value.getCheckbox().setValue(true)));
+        // Undo/redo of layout changes
+        buttonUndo = new Button("Undo", new Icon(VaadinIcon.ARROW_BACKWARD));
+        buttonUndo.getElement().setAttribute("style", "margin: 0 3px; width: 100%;");
+        buttonRedo = new Button("Redo", new Icon(VaadinIcon.ARROW_FORWARD));
+        buttonRedo.getElement().setAttribute("style", "margin: 0 3px; width: 100%;");
+        buttonUndo.addClickListener(event -> restoreLayout(layoutHistory.undo()));
+        buttonRedo.addClickListener(event -> restoreLayout(layoutHistory.redo()));
+        updateHistoryButtons();
+        HorizontalLayout hlHistory = new HorizontalLayout(buttonUndo, buttonRedo);
         managerContextMenu.add(headerSpan);
         managerContextMenu.add(hlButtons);
+        managerContextMenu.add(hlHistory);
     }
 
 
     /**
-     * Saving order and width of columns
+     * Saving order and width of columns.
+     * Package-private for benchmarks.
      */
-    private void saveColumnsToFile() {
+    void saveColumnsToFile() {
+        saveColumnsTimer.record(this::saveColumns);
+    }
+
+    private void saveColumns() {
         refreshColumns();
+        columnsChanged = false;
         if (!parametersLoaded) {
             Notification.show("Grid settings didn't loaded. Check configuration: " + gridSettingsFileName);
             return;
         }
         Notification.show("Grid settings saved...");
-        LinkedList<String> columnKeyList = actualColumnsMap.entrySet().stream()
+        GridLayout gridLayout = getCurrentLayout();
+        GridSettings.save(gridSettingsFileName, gridLayout);
+        addToHistory(gridLayout);
+    }
+
+
+    private GridLayout getCurrentLayout() {
+        List<ColumnSettings> columns = actualColumnsMap.entrySet().stream()
                 .map(columnParamsEntry -> {
                     String columnKey = columnParamsEntry.getKey();
-                    boolean visible = columnParamsEntry.getValue().getCheckbox().getValue();
+                    boolean visible = columnParamsEntry.getValue().isVisible();
                     String width = columnParamsEntry.getValue().getWidth();
-                    // Header adding is only for debug purposes
-                    String header = Optional.ofNullable(columnParamsEntry.getValue().getHeader())
-                            .map(Component::getElement)
-                            .map(Element::getText).orElse("");
-                    return columnKey + "/" + visible + "/" + width + "/" + header;
+                    return new ColumnSettings(columnKey, visible, width);
                 })
-                .collect(Collectors.toCollection(LinkedList::new));
-        String fileName = getFileName(gridSettingsFileName);
-        Path path = Paths.get(fileName);
-        try {
-            Files.write(path, columnKeyList);
-        } catch (IOException e) {
-            log.error("Error while saving grid settings parameters. Setting file name={}", gridSettingsFileName, e);
-        }
+                .collect(Collectors.toList());
+        return new GridLayout(columns);
+    }
+
+
+    /**
+     * Undo/redo: layout from history is applied and saved, it stays current in history
+     */
+    private void restoreLayout(GridLayout gridLayout) {
+        applyLayout(gridLayout);
+        saveColumnsToFile();
+        reconstructManagerContextMenu();
+        updateHistoryButtons();
+    }
+
+    private void addToHistory(GridLayout gridLayout) {
+        layoutHistory.add(gridLayout);
+        updateHistoryButtons();
+    }
+
+    private void updateHistoryButtons() {
+        buttonUndo.setEnabled(layoutHistory.canUndo());
+        buttonRedo.setEnabled(layoutHistory.canRedo());
     }
 
 
@@ -209,112 +318,191 @@ public class VaadinGridColumnsManager04<T> {
      * Initialization.
      * 1. Loading columns orders, visibility and width from file
      * 2. Recreating context menu checkboxes
-     * 3. Recreating columns in grid with loaded order
+     * 3. Creating visible columns in grid with loaded order
      */
     public void initialize() {
+        initializeTimer.record(this::loadSettingsAndColumns);
+    }
+
+    private void loadSettingsAndColumns() {
         this.parametersLoaded = true;
-        // Split all lines with delimiter "/" to array
-        Path path = Paths.get(getFileName(gridSettingsFileName));
-        if (Files.exists(path)) {
-            try (Stream<String> lines = Files.lines(path)) {
-                actualColumnsMap.clear();
-                // Load colums settings
-                lines
-                        .map(s -> s.split("/"))
-                        .filter(array -> array.length > 2)
-                        .filter(array -> registeredColumnsMap.containsKey(array[0]))
-                        .forEach(array -> {
-                            ColumnParams<T> columnParams = registeredColumnsMap.get(array[0]);
-                            columnParams.getCheckbox().setValue(Boolean.parseBoolean(array[1]));
-                            columnParams.setWidth(array[2]);
-                            actualColumnsMap.put(array[0], columnParams);
-                        });
-                // If you add some columns after already saved config - it must be added now.
-                registeredColumnsMap.forEach((key, columnParams) -> {
-                    if (!actualColumnsMap.containsKey(key)) actualColumnsMap.put(key, columnParams);
-                });
+        try {
+            Optional<GridLayout> gridLayout = GridSettings.load(gridSettingsFileName);
+            if (gridLayout.isPresent()) {
+                applyLayout(gridLayout.get());
+            } else {
                 registeredColumnsMap.forEach((key, tColumnParams) -> actualColumnsMap.computeIfAbsent(key, registeredColumnsMap::get));
-            } catch (IOException e) {
-                log.error("Error while loading grid settings parameters. Setting file name={}", gridSettingsFileName, e);
+                saveColumnsToFile();
             }
-
-        } else {
-            registeredColumnsMap.forEach((key, tColumnParams) -> actualColumnsMap.computeIfAbsent(key, registeredColumnsMap::get));
-            saveColumnsToFile();
+        } catch (IOException e) {
+            log.error("Error while loading grid settings parameters. Setting file name={}", gridSettingsFileName, e);
         }
         reconstructManagerContextMenu();
         refreshColumns();
+        addToHistory(getCurrentLayout());
+    }
+
+
+    /**
+     * Apply loaded layout to columns parameters, grid itself is changed by {@link #refreshColumns()}
+     */
+    private void applyLayout(GridLayout gridLayout) {
+        actualColumnsMap.clear();
+        // Load colums settings
+        gridLayout.getColumns().stream()
+                .filter(columnSettings -> registeredColumnsMap.containsKey(columnSettings.getKey()))
+                .forEach(columnSettings -> {
+                    ColumnParams<T> columnParams = registeredColumnsMap.get(columnSettings.getKey());
+                    setColumnVisible(columnParams, columnSettings.isVisible());
+                    columnParams.setWidth(columnSettings.getWidth());
+                    actualColumnsMap.put(columnSettings.getKey(), columnParams);
+                });
+        // If you add some columns after already saved config - it must be added now.
+        registeredColumnsMap.forEach((key, tColumnParams) -> actualColumnsMap.computeIfAbsent(key, registeredColumnsMap::get));
     }
 
 
     /**
-     * Recreate checkboxes in context menu
+     * Recreate checkboxes in context menu.
+     * Only checkboxes that are out of place are moved: the longest run of checkboxes that are already
+     * in the right order stays, the rest are re-appended in new order.
+     * Checkboxes are created and added on first menu opening only.
      */
     private void reconstructManagerContextMenu() {
-        actualColumnsMap.entrySet().stream()
-                .filter(entry -> !entry.getKey().equals(COLUMNS_MANAGER))
-                .forEach(entry -> {
-                    ColumnParams<T> tColumnParams = entry.getValue();
-                    Checkbox checkbox = tColumnParams.getCheckbox();
-                    managerContextMenu.add(checkbox);
+        if (!managerContextMenuBuilt) return;
+        menuRebuildTimer.record(this::moveMenuCheckboxes);
+    }
+
+    private void moveMenuCheckboxes() {
+        List<String> checkboxKeys = getManagedColumnKeys();
+        int keptCount = 0;
+        for (String key : menuCheckboxKeys) {
+            if (keptCount < checkboxKeys.size() && checkboxKeys.get(keptCount).equals(key)) keptCount++;
+        }
+        Set<String> addedKeys = new HashSet<>(menuCheckboxKeys);
+        checkboxKeys.subList(keptCount, checkboxKeys.size()).forEach(key -> {
+            ColumnParams<T> tColumnParams = actualColumnsMap.get(key);
+            if (tColumnParams.getCheckbox() == null) {
+                Checkbox checkbox = new Checkbox(getCheckboxName(tColumnParams), tColumnParams.isVisible());
+                checkbox.addValueChangeListener(event -> {
+                    tColumnParams.setVisible(event.getValue());
+                    columnsChanged = true;
                 });
+                tColumnParams.setCheckbox(checkbox);
+            }
+            if (addedKeys.contains(key)) managerContextMenu.remove(tColumnParams.getCheckbox());
+            managerContextMenu.add(tColumnParams.getCheckbox());
+        });
+        menuCheckboxKeys.clear();
+        menuCheckboxKeys.addAll(checkboxKeys);
     }
 
 
     /**
-     * Grid columns reconstruct
+     * Keys of columns in current order, without column of columns manager itself
      */
-    private void refreshColumns() {
-        // Only connected columns
-        List<Grid.Column<T>> addedColumns = tGrid.getColumns();
+    private List<String> getManagedColumnKeys() {
+        return actualColumnsMap.keySet().stream()
+                .filter(key -> !key.equals(COLUMNS_MANAGER))
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * Start batch of columns changes (visibility, order, width). Changes are collected and applied by
+     * {@link LayoutUpdate#commit()} at once: one reconciliation of grid columns, so client gets all of them
+     * in one response, and one write of settings.
+     */
+    public LayoutUpdate beginUpdate() {
+        return new LayoutUpdate();
+    }
+
+
+    /**
+     * Grid columns reconstruct.
+     * Desired layout is compared with layout that was last applied to grid and only differences are applied:
+     * added/removed columns, column order (if it is changed) and changed widths.
+     * Package-private for benchmarks.
+     */
+    void refreshColumns() {
+        refreshColumnsTimer.record(this::reconcileColumns);
+    }
+
+    private void reconcileColumns() {
         // Column "Setting" must be first all the time
-        Map.Entry<String, ColumnParams<T>> columnsManagerEntry = actualColumnsMap.entrySet().stream()
-                .filter(entry -> entry.getKey().equals(COLUMNS_MANAGER))
-                .findFirst()
-                .orElse(null);
-        if (Objects.isNull(columnsManagerEntry)) return;
-        // Next is "freezed" columns
-        LinkedHashMap<String, ColumnParams<T>> sortedByFrozen = actualColumnsMap.entrySet().stream()
-                .filter(entry -> !entry.getKey().equals(COLUMNS_MANAGER))
-                .sorted((o1, o2) -> Boolean.compare(o2.getValue().getColumnInstance().isFrozen(), o1.getValue().getColumnInstance().isFrozen()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e2, LinkedHashMap::new));
-        // Mapping building
-        actualColumnsMap.clear();
-        actualColumnsMap.put(columnsManagerEntry.getKey(), columnsManagerEntry.getValue());
-        actualColumnsMap.putAll(sortedByFrozen);
+        if (!actualColumnsMap.containsKey(COLUMNS_MANAGER)) return;
+        sortFrozenFirst();
+
+        // Only connected columns
+        Set<String> addedKeys = tGrid.getColumns().stream()
+                .map(Grid.Column::getKey)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        appliedColumnOrder.retainAll(addedKeys);
+        // Frozen flag learned from column shown first time, columns must be sorted again
+        boolean[] frozenLearned = {false};
         // Removing/adding columns
         actualColumnsMap.forEach((key, tColumnParams) -> {
-            if (tColumnParams.getCheckbox().getValue()) {
-                // For visible column
-                boolean present = addedColumns.stream().anyMatch(addedColumn -> addedColumn.getKey().equals(key));
-                if (!present) {
-                    createAddColumn(key, tColumnParams);
+            if (tColumnParams.isVisible()) {
+                // For visible column. New column is added by grid at tail.
+                if (!addedKeys.contains(key)) {
+                    frozenLearned[0] |= createAddColumn(key, tColumnParams);
+                    appliedColumnOrder.add(key);
+                    appliedWidths.put(key, tColumnParams.getWidth());
                 }
             } else {
-                // For invisible column
-                addedColumns.stream()
-                        .filter(addedColumn -> addedColumn.getKey().equals(key))
-                        .findAny()
-                        .ifPresent(tColumn -> tGrid.removeColumnByKey(key));
+                // For invisible column. Instance is dropped, it will be created again when column is shown.
+                if (addedKeys.contains(key)) {
+                    tGrid.removeColumnByKey(key);
+                    appliedColumnOrder.remove(key);
+                }
+                appliedWidths.remove(key);
+                tColumnParams.setColumnInstance(null);
             }
         });
+        if (frozenLearned[0]) sortFrozenFirst();
+
+        // Setting columns order, only if it differs from grid's one
+        List<String> visibleKeys = actualColumnsMap.entrySet().stream()
+                .filter(entry -> entry.getValue().isVisible())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (!visibleKeys.equals(appliedColumnOrder)) {
+            tGrid.setColumnOrder(visibleKeys.stream()
+                    .map(key -> actualColumnsMap.get(key).getColumnInstance())
+                    .collect(Collectors.toList()));
+            appliedColumnOrder.clear();
+            appliedColumnOrder.addAll(visibleKeys);
+        }
 
-        // Setting columns order
-        LinkedList<Grid.Column<T>> collect = actualColumnsMap.values().stream()
-                .filter(tColumnParams -> tColumnParams.getCheckbox().getValue())
-                .map(ColumnParams::getColumnInstance)
-                .collect(Collectors.toCollection(LinkedList::new));
-        tGrid.setColumnOrder(collect);
-
-        // Setting widths
-        actualColumnsMap.values().stream()
-                .filter(tColumnParams -> tColumnParams.getCheckbox().getValue())
-                .forEach(tColumnParams -> tColumnParams.getColumnInstance().setWidth(tColumnParams.getWidth()));
+        // Setting widths, only changed ones
+        visibleKeys.forEach(key -> {
+            ColumnParams<T> tColumnParams = actualColumnsMap.get(key);
+            if (!Objects.equals(appliedWidths.get(key), tColumnParams.getWidth())) {
+                tColumnParams.getColumnInstance().setWidth(tColumnParams.getWidth());
+                appliedWidths.put(key, tColumnParams.getWidth());
+            }
+        });
     }
 
 
-    private String getFileName(String gridName) {
-        return OPERATOR_SETTINGS_FOLDER + "/" + gridName;
+    /**
+     * Columns manager column first, frozen columns next, other columns keep their order.
+     * Mapping is rebuilt only if order is changed.
+     */
+    private void sortFrozenFirst() {
+        List<String> sortedKeys = new ArrayList<>(actualColumnsMap.size());
+        sortedKeys.add(COLUMNS_MANAGER);
+        actualColumnsMap.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(COLUMNS_MANAGER))
+                .sorted((o1, o2) -> Boolean.compare(o2.getValue().getDefinition().isFrozen(), o1.getValue().getDefinition().isFrozen()))
+                .forEach(entry -> sortedKeys.add(entry.getKey()));
+        if (!sortedKeys.equals(new ArrayList<>(actualColumnsMap.keySet()))) {
+            LinkedHashMap<String, ColumnParams<T>> sortedColumns = new LinkedHashMap<>();
+            sortedKeys.forEach(key -> sortedColumns.put(key, actualColumnsMap.get(key)));
+            actualColumnsMap.clear();
+            actualColumnsMap.putAll(sortedColumns);
+        }
     }
 
 
@@ -333,7 +521,10 @@ public class VaadinGridColumnsManager04<T> {
     }
 
     /**
-     * Registering column with Component header, full version
+     * Registering column with Component header, full version.
+     * Only column definition is stored here, column instance is created when column becomes visible
+     * (in {@link #initialize()} for columns visible in saved settings), so hidden columns cost nothing.
+     * Definition is made for this grid only, use {@link #registerColumns(List)} to share definitions between sessions.
      *
      * @param columnKey              - column key
      * @param columnHeader           - component for column header
@@ -342,40 +533,114 @@ public class VaadinGridColumnsManager04<T> {
      * @param columnInstanceSupplier - column creation code supplier
      */
     public void registerColumn(String columnKey, Component columnHeader, boolean populateKey, boolean populateHeader, Supplier<Grid.Column<T>> columnInstanceSupplier) {
-        Grid.Column<T> columnInstance = columnInstanceSupplier.get();
-        // Trying to get header text from "colman-checkbox-name" or text attribute
-        String checkboxName = Optional
-                .ofNullable(columnHeader.getElement().getAttribute("colman-checkbox-name"))
-                .orElse(columnHeader.getElement().getText())
-                + (columnInstance.isFrozen() ? "(*)" : "");
-        Checkbox checkbox = new Checkbox(checkboxName, true);
-
-        registeredColumnsMap.put(columnKey, new ColumnParams<>(
-                columnInstance.getWidth(),
-                columnHeader,
-                columnInstanceSupplier,
-                columnInstance,
-                populateKey,
-                populateHeader,
-                checkbox
+        registerColumn(columnKey, columnHeader, populateKey, populateHeader, false, columnInstanceSupplier);
+    }
+
+    /**
+     * Registering column, that can be frozen. Column instance doesn't exist while column is hidden,
+     * so "frozen" flag should be known on registration; column creation code must freeze the instance.
+     * Column registered as not frozen, but frozen by its creation code, is treated as frozen since it is shown first time.
+     */
+    public void registerColumn(String columnKey, Component columnHeader, boolean populateKey, boolean populateHeader, boolean frozen,
+                               Supplier<Grid.Column<T>> columnInstanceSupplier) {
+        registerColumn(new GridColumnDefinition<>(columnKey, getHeaderText(columnHeader),
+                grid -> columnHeader, populateKey, populateHeader, grid -> columnInstanceSupplier.get(), null, frozen));
+    }
+
+    /**
+     * Registering columns by definitions shared between sessions (see {@link GridColumnRegistry}).
+     * Only visibility, width, order and components of columns are kept for this grid.
+     */
+    public void registerColumns(List<GridColumnDefinition<T>> definitions) {
+        definitions.forEach(this::registerColumn);
+    }
+
+    /**
+     * Registering columns generated from {@link GridColumn} annotations of entity class, once per class.
+     * Headers of filterable columns are created by filter header factory of this grid.
+     */
+    public void registerColumns(Class<T> entityClass, FilterHeaderFactory<T> filterHeaderFactory) {
+        ComponentUtil.setData(tGrid, FilterHeaderFactory.class, filterHeaderFactory);
+        registerColumns(GridColumnRegistry.getDefinitions(entityClass));
+    }
+
+    public void registerColumn(GridColumnDefinition<T> definition) {
+        registeredColumnsMap.put(definition.getKey(), new ColumnParams<>(
+                definition,
+                null,
+                null,
+                null,
+                null,
+                true,
+                null
         ));
-        if (populateKey) columnInstance.setKey(columnKey);
-        if (populateHeader) columnInstance.setHeader(columnHeader);
+    }
+
+
+    /**
+     * Trying to get header text from "colman-checkbox-name" or text attribute
+     */
+    private String getHeaderText(Component columnHeader) {
+        return Optional
+                .ofNullable(columnHeader.getElement().getAttribute("colman-checkbox-name"))
+                .orElse(columnHeader.getElement().getText());
+    }
+
+    private String getCheckboxName(ColumnParams<T> tColumnParams) {
+        return tColumnParams.getDefinition().getHeaderText() + (tColumnParams.getDefinition().isFrozen() ? "(*)" : "");
+    }
+
+
+    /**
+     * Column visibility, checkbox is updated if it is already created
+     */
+    private void setColumnVisible(ColumnParams<T> tColumnParams, boolean visible) {
+        tColumnParams.setVisible(visible);
+        if (tColumnParams.getCheckbox() != null) tColumnParams.getCheckbox().setValue(visible);
     }
 
 
     /**
      * Adding column to grid
+     *
+     * @return true if column is frozen by its creation code, but was not registered as frozen
      */
-    private void createAddColumn(String key, ColumnParams<T> tColumnParams) {
-        Grid.Column<T> columnInstance = tColumnParams.getColumnInstanceSupplier().get();
-        if (tColumnParams.isPopulateKey()) columnInstance.setKey(key);
-        if (tColumnParams.isPopulateHeader()) columnInstance.setHeader(tColumnParams.getHeader());
-        columnInstance.setWidth(tColumnParams.getWidth());
+    private boolean createAddColumn(String key, ColumnParams<T> tColumnParams) {
+        GridColumnDefinition<T> definition = tColumnParams.getDefinition();
+        Grid.Column<T> columnInstance = definition.createColumn(tGrid);
+        if (definition.isPopulateKey()) columnInstance.setKey(key);
+        if (definition.isPopulateHeader()) {
+            // Header component is created once and kept, so its state (filter value) survives hiding of column
+            if (tColumnParams.getHeader() == null) tColumnParams.setHeader(definition.createHeader(tGrid));
+            columnInstance.setHeader(tColumnParams.getHeader());
+        }
+        if (definition.getFooterFactory() != null) {
+            if (tColumnParams.getFooter() == null) tColumnParams.setFooter(definition.createFooter(tGrid));
+            if (tColumnParams.getFooter() != null) columnInstance.setFooter(tColumnParams.getFooter());
+        }
+        // Width from column's creation code is default, until it is changed by user
+        if (tColumnParams.getWidth() == null) {
+            tColumnParams.setWidth(columnInstance.getWidth());
+        } else {
+            columnInstance.setWidth(tColumnParams.getWidth());
+        }
         tColumnParams.setColumnInstance(columnInstance);
+        if (columnInstance.isFrozen() && !definition.isFrozen()) {
+            tColumnParams.setDefinition(definition.withFrozen(true));
+            if (tColumnParams.getCheckbox() != null) tColumnParams.getCheckbox().setLabel(getCheckboxName(tColumnParams));
+            return true;
+        }
+        return false;
     }
 
 
+    /**
+     * Package-private for tests
+     */
+    ContextMenu getManagerContextMenu() {
+        return managerContextMenu;
+    }
+
     public Map<String, ColumnParams<T>> getRegisteredColumnsMap() {
         return registeredColumnsMap;
     }
@@ -386,18 +651,88 @@ public class VaadinGridColumnsManager04<T> {
 
 
     /**
-     * Static class for mapping values
+     * Batch of columns changes, see {@link #beginUpdate()}
+     */
+    public class LayoutUpdate {
+        // Map KEY => visibility/width
+        private final Map<String, Boolean> visibilities = new LinkedHashMap<>();
+        private final Map<String, String> widths = new LinkedHashMap<>();
+        // Null if order is not changed
+        private List<String> order;
+        private boolean committed = false;
+
+        private LayoutUpdate() {
+        }
+
+        public LayoutUpdate setVisible(String columnKey, boolean visible) {
+            visibilities.put(checkKey(columnKey), visible);
+            return this;
+        }
+
+        public LayoutUpdate setWidth(String columnKey, String width) {
+            widths.put(checkKey(columnKey), width);
+            return this;
+        }
+
+        /**
+         * Columns order, not listed columns keep their order after listed ones
+         */
+        public LayoutUpdate setOrder(List<String> columnKeys) {
+            columnKeys.forEach(this::checkKey);
+            order = new ArrayList<>(columnKeys);
+            return this;
+        }
+
+        public void commit() {
+            if (committed) throw new IllegalStateException("Grid layout update is already committed: " + gridSettingsFileName);
+            if (actualColumnsMap.isEmpty()) throw new IllegalStateException("Columns manager is not initialized: " + gridSettingsFileName);
+            committed = true;
+            if (order != null) {
+                LinkedHashSet<String> orderedKeys = new LinkedHashSet<>(order);
+                orderedKeys.addAll(actualColumnsMap.keySet());
+                LinkedHashMap<String, ColumnParams<T>> orderedColumns = new LinkedHashMap<>();
+                orderedKeys.forEach(key -> orderedColumns.put(key, registeredColumnsMap.get(key)));
+                actualColumnsMap.clear();
+                actualColumnsMap.putAll(orderedColumns);
+            }
+            visibilities.forEach((key, visible) -> setColumnVisible(registeredColumnsMap.get(key), visible));
+            widths.forEach((key, width) -> registeredColumnsMap.get(key).setWidth(width));
+            // Saving refreshes columns
+            saveColumnsToFile();
+            reconstructManagerContextMenu();
+        }
+
+        /**
+         * Column of columns manager itself is always shown first and is not changed by updates
+         */
+        private String checkKey(String columnKey) {
+            if (COLUMNS_MANAGER.equals(columnKey)) {
+                throw new IllegalArgumentException("Columns manager column can't be updated, grid " + gridSettingsFileName);
+            }
+            if (!registeredColumnsMap.containsKey(columnKey)) {
+                throw new IllegalArgumentException("Column is not registered: " + columnKey + ", grid " + gridSettingsFileName);
+            }
+            return columnKey;
+        }
+    }
+
+
+    /**
+     * Static class for mapping values: shared column definition and state of column in this grid.
+     * Column instance, header and footer are null while column was not shown in grid, checkbox is null until menu is opened;
+     * width is null until it is known from saved settings or from column's creation code.
      */
     @Getter
     @Setter
     @AllArgsConstructor
     public static class ColumnParams<T> {
+        // Replaced by frozen one, if column turns out to be frozen by its creation code
+        private GridColumnDefinition<T> definition;
         private String width;
         private Component header;
-        private Supplier<Grid.Column<T>> columnInstanceSupplier;
+        private Component footer;
         private Grid.Column<T> columnInstance;
-        private boolean populateKey;
-        private boolean populateHeader;
+        private boolean visible;
         private Checkbox checkbox;
     }
 }
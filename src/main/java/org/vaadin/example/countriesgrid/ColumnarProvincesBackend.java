@@ -0,0 +1,174 @@
+package org.vaadin.example.countriesgrid;
+
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.vaadin.example.griddata.ColumnarRowStore;
+import org.vaadin.example.griddata.DoubleColumn;
+import org.vaadin.example.griddata.IntColumn;
+import org.vaadin.example.griddata.PagedBackend;
+import org.vaadin.example.griddata.SortPermutations;
+import org.vaadin.example.griddata.StoreColumn;
+import org.vaadin.example.griddata.StringColumn;
+import org.vaadin.example.gridfilter.FilterResultCache;
+import org.vaadin.example.gridfilter.RowFilterPipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+
+/**
+ * Provinces backend over {@link ColumnarRowStore}: numbers are kept in primitive arrays, strings are dictionary-encoded.
+ * Filtering and sorting work on row indexes and columns, {@link ProvinceEntity} objects are created
+ * only for the fetched window. Sorting uses cached per-column permutations, see {@link SortPermutations}. Store column names are grid column keys, as in database table.
+ * Backend is shared by all sessions: store is not changed after construction, caches are thread-safe.
+ */
+public class ColumnarProvincesBackend implements PagedBackend<ProvinceEntity> {
+
+    private final ColumnarRowStore store;
+    private final StringColumn provinceName;
+    private final StringColumn capital;
+    private final DoubleColumn area;
+    private final DoubleColumn areaPercent;
+    private final IntColumn population2000;
+    private final IntColumn population2010;
+    private final IntColumn population2020;
+    private final IntColumn populationEstimate2021;
+    private final IntColumn populationDensity2021;
+    private final SortPermutations sortPermutations;
+    // Grid columns, that show other store column. Map COLUMN KEY => store column name
+    private final Map<String, String> columnAliases;
+    // Recent filter results, type-ahead filters are narrowed from them
+    private final FilterResultCache filterCache = new FilterResultCache();
+    // Sorted rows of the last query (of any session), pages of the same query are cut from them
+    private volatile SortedRows lastQuery;
+
+
+    public ColumnarProvincesBackend(List<ProvinceEntity> rows) {
+        store = new ColumnarRowStore(rows.size());
+        provinceName = store.addColumn("PROVINCE_NAME", StringColumn.of(rows, ProvinceEntity::getProvinceName));
+        capital = store.addColumn("CAPITAL", StringColumn.of(rows, ProvinceEntity::getCapital));
+        area = store.addColumn("AREA", DoubleColumn.of(rows, ProvinceEntity::getArea));
+        areaPercent = store.addColumn("AREA_PERCENT", DoubleColumn.of(rows, ProvinceEntity::getAreaPercent));
+        population2000 = store.addColumn("POPULATION_2000", IntColumn.of(rows, ProvinceEntity::getPopulation2000));
+        population2010 = store.addColumn("POPULATION_2010", IntColumn.of(rows, ProvinceEntity::getPopulation2010));
+        population2020 = store.addColumn("POPULATION_2020", IntColumn.of(rows, ProvinceEntity::getPopulation2020));
+        populationEstimate2021 = store.addColumn("POPULATION_ESTIMATE_2021", IntColumn.of(rows, ProvinceEntity::getPopulationEstimate2021));
+        populationDensity2021 = store.addColumn("POPULATION_DENSITY_2021", IntColumn.of(rows, ProvinceEntity::getPopulationDensity2021));
+        sortPermutations = new SortPermutations(store);
+        // Column with header filter shows province name
+        columnAliases = Collections.singletonMap("PROVINCE_NAME_FILTER", "PROVINCE_NAME");
+    }
+
+
+    /**
+     * Work is proportional to the window: unfiltered rows are not copied (cached permutation or store order is sliced),
+     * filtered and sorted rows of the query are kept for its next pages
+     */
+    @Override
+    public List<ProvinceEntity> fetch(int offset, int limit, List<QuerySortOrder> sortOrders, Map<String, String> filters) {
+        int[] rowIds = getSortedRows(sortOrders, filters);
+        int rowCount = rowIds == null ? store.getRowCount() : rowIds.length;
+        int to = (int) Math.min(rowCount, (long) offset + limit);
+        List<ProvinceEntity> window = new ArrayList<>(Math.max(to - offset, 0));
+        for (int i = offset; i < to; i++) window.add(toEntity(store.getRow(rowIds == null ? i : rowIds[i])));
+        return window;
+    }
+
+
+    /**
+     * Ids of rows passing filters in sort order, null if it is all rows in store order
+     */
+    private int[] getSortedRows(List<QuerySortOrder> sortOrders, Map<String, String> filters) {
+        List<QuerySortOrder> storeSortOrders = new ArrayList<>(sortOrders.size());
+        // Sort columns with directions, QuerySortOrder has no equals
+        List<String> sortKey = new ArrayList<>(sortOrders.size());
+        sortOrders.forEach(sortOrder -> {
+            String storeColumnName = columnAliases.getOrDefault(sortOrder.getSorted(), sortOrder.getSorted());
+            storeSortOrders.add(new QuerySortOrder(storeColumnName, sortOrder.getDirection()));
+            sortKey.add(storeColumnName + " " + sortOrder.getDirection());
+        });
+        SortedRows query = lastQuery;
+        if (query != null && query.filters.equals(filters) && query.sortKey.equals(sortKey)) return query.rowIds;
+        int[] rowIds = sortPermutations.sort(filters.isEmpty() ? null : filter(filters), storeSortOrders);
+        lastQuery = new SortedRows(new HashMap<>(filters), sortKey, rowIds);
+        return rowIds;
+    }
+
+
+    @Override
+    public int count(Map<String, String> filters) {
+        return filters.isEmpty() ? store.getRowCount() : filter(filters).length;
+    }
+
+
+    @Override
+    public int[] filterRowIds(Map<String, String> filters) {
+        return filter(filters);
+    }
+
+
+    /**
+     * Values are read from store column, rows are not materialized
+     */
+    @Override
+    public IntFunction<?> getColumnValues(String columnKey) {
+        StoreColumn column = getColumn(columnKey);
+        return column == null ? null : column::getValue;
+    }
+
+
+    /**
+     * Ids of rows that pass all "starts with" filters, in store order.
+     * Extended prefix filters only rows of cached result.
+     */
+    private int[] filter(Map<String, String> filters) {
+        if (filters.isEmpty()) return new RowFilterPipeline(store.getRowCount()).filter();
+        return filterCache.getRows(filters, candidateRowIds -> {
+            RowFilterPipeline pipeline = candidateRowIds == null
+                    ? new RowFilterPipeline(store.getRowCount())
+                    : new RowFilterPipeline(candidateRowIds);
+            filters.forEach((columnKey, prefix) -> {
+                StoreColumn column = getColumn(columnKey);
+                if (column == null) return;
+                pipeline.add(row -> {
+                    String text = column.getText(row);
+                    return StringUtils.startsWithIgnoreCase(text == null ? "" : text, prefix);
+                });
+            });
+            return pipeline.filter();
+        });
+    }
+
+
+    private StoreColumn getColumn(String columnKey) {
+        return store.getColumn(columnAliases.getOrDefault(columnKey, columnKey));
+    }
+
+
+    @AllArgsConstructor
+    private static class SortedRows {
+        private final Map<String, String> filters;
+        private final List<String> sortKey;
+        // Null for all rows in store order
+        private final int[] rowIds;
+    }
+
+
+    private ProvinceEntity toEntity(ColumnarRowStore.RowView row) {
+        return new ProvinceEntity(
+                row.getString(provinceName),
+                row.getString(capital),
+                row.getDouble(area),
+                row.getDouble(areaPercent),
+                row.getInt(population2000),
+                row.getInt(population2010),
+                row.getInt(population2020),
+                row.getInt(populationEstimate2021),
+                row.getInt(populationDensity2021));
+    }
+}
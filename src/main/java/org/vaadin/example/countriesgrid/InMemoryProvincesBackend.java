@@ -0,0 +1,108 @@
+package org.vaadin.example.countriesgrid;
+
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.function.ValueProvider;
+import org.apache.commons.lang3.StringUtils;
+import org.vaadin.example.gridcolumns.EntityColumns;
+import org.vaadin.example.griddata.PagedBackend;
+import org.vaadin.example.gridfilter.FilterResultCache;
+import org.vaadin.example.gridfilter.RowFilterPipeline;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * Stand-in for database backend of provinces grid lazy mode.
+ * Sorting and filtering are done here, as database query would do them; grid gets only requested window.
+ * Filters are evaluated by {@link RowFilterPipeline}, in parallel for large data.
+ * Backend is shared by all sessions: rows and columns are not changed after construction, filter cache is thread-safe.
+ */
+public class InMemoryProvincesBackend implements PagedBackend<ProvinceEntity> {
+
+    private final List<ProvinceEntity> rows;
+    // Sortable/filterable values. Map COLUMN KEY => value provider
+    private final Map<String, ValueProvider<ProvinceEntity, ?>> columnValues = new HashMap<>();
+    // Recent filter results, type-ahead filters are narrowed from them
+    private final FilterResultCache filterCache = new FilterResultCache();
+
+    /**
+     * Constructor, columns are taken from {@link EntityColumns} of {@link ProvinceEntity}
+     *
+     * @param rows - backend data, must not be changed
+     */
+    public InMemoryProvincesBackend(List<ProvinceEntity> rows) {
+        this.rows = rows;
+        EntityColumns.of(ProvinceEntity.class).getColumns().forEach(column -> columnValues.put(column.getKey(), column.getValueProvider()));
+    }
+
+
+    @Override
+    public List<ProvinceEntity> fetch(int offset, int limit, List<QuerySortOrder> sortOrders, Map<String, String> filters) {
+        Stream<ProvinceEntity> stream = filters.isEmpty() ? rows.stream() : IntStream.of(filter(filters)).mapToObj(rows::get);
+        Comparator<ProvinceEntity> comparator = createComparator(sortOrders);
+        if (comparator != null) stream = stream.sorted(comparator);
+        return stream.skip(offset).limit(limit).collect(Collectors.toList());
+    }
+
+
+    @Override
+    public int count(Map<String, String> filters) {
+        return filters.isEmpty() ? rows.size() : filter(filters).length;
+    }
+
+
+    @Override
+    public int[] filterRowIds(Map<String, String> filters) {
+        return filter(filters);
+    }
+
+
+    @Override
+    public IntFunction<?> getColumnValues(String columnKey) {
+        ValueProvider<ProvinceEntity, ?> valueProvider = columnValues.get(columnKey);
+        return valueProvider == null ? null : row -> valueProvider.apply(rows.get(row));
+    }
+
+
+    /**
+     * Ids of rows that pass all "starts with" filters, filters are combined into one pipeline.
+     * Extended prefix filters only rows of cached result.
+     */
+    private int[] filter(Map<String, String> filters) {
+        return filterCache.getRows(filters, candidateRowIds -> {
+            RowFilterPipeline pipeline = candidateRowIds == null
+                    ? new RowFilterPipeline(rows.size())
+                    : new RowFilterPipeline(candidateRowIds);
+            for (Map.Entry<String, String> entry : filters.entrySet()) {
+                ValueProvider<ProvinceEntity, ?> valueProvider = columnValues.get(entry.getKey());
+                if (valueProvider == null) continue;
+                String prefix = entry.getValue();
+                pipeline.add(row -> StringUtils.startsWithIgnoreCase(Objects.toString(valueProvider.apply(rows.get(row)), ""), prefix));
+            }
+            return pipeline.filter();
+        });
+    }
+
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<ProvinceEntity> createComparator(List<QuerySortOrder> sortOrders) {
+        Comparator<ProvinceEntity> comparator = null;
+        for (QuerySortOrder sortOrder : sortOrders) {
+            ValueProvider<ProvinceEntity, ?> valueProvider = columnValues.get(sortOrder.getSorted());
+            if (valueProvider == null) continue;
+            Comparator<ProvinceEntity> columnComparator = ProvincesGridColumns.compareNullable(provinceEntity -> (Comparable) valueProvider.apply(provinceEntity));
+            if (sortOrder.getDirection() == SortDirection.DESCENDING) columnComparator = columnComparator.reversed();
+            comparator = comparator == null ? columnComparator : comparator.thenComparing(columnComparator);
+        }
+        return comparator;
+    }
+}
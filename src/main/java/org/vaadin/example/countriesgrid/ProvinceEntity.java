@@ -4,20 +4,32 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.vaadin.example.gridaggregate.Aggregate;
+import org.vaadin.example.gridcolumns.GridColumn;
 
 @Getter
 @Setter
 @AllArgsConstructor
 public class ProvinceEntity {
 
+    @GridColumn(key = "PROVINCE_NAME", header = "Province or Special Region", frozen = true, aggregates = Aggregate.COUNT)
+    @GridColumn(key = "PROVINCE_NAME_FILTER", header = "Province or Special Region / F", frozen = true, filterable = true)
     private String provinceName;
+    @GridColumn(key = "CAPITAL", header = "Capital", frozen = true)
     private String capital;
+    @GridColumn(key = "AREA", header = "Area", frozen = true, aggregates = Aggregate.SUM)
     private Double area;
+    @GridColumn(key = "AREA_PERCENT", header = "Area %", aggregates = Aggregate.SUM)
     private Double areaPercent;
+    @GridColumn(key = "POPULATION_2000", header = "Population census 2000", aggregates = Aggregate.SUM)
     private Integer population2000;
+    @GridColumn(key = "POPULATION_2010", header = "Population census 2010", aggregates = Aggregate.SUM)
     private Integer population2010;
+    @GridColumn(key = "POPULATION_2020", header = "Population census 2020", aggregates = Aggregate.SUM)
     private Integer population2020;
+    @GridColumn(key = "POPULATION_ESTIMATE_2021", header = "Population estimate mid 2021", aggregates = Aggregate.SUM)
     private Integer populationEstimate2021;
+    @GridColumn(key = "POPULATION_DENSITY_2021", header = "Population density mid 2021", aggregates = {Aggregate.MIN, Aggregate.AVG, Aggregate.MAX})
     private Integer populationDensity2021;
 
 }
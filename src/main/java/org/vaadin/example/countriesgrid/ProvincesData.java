@@ -0,0 +1,139 @@
+package org.vaadin.example.countriesgrid;
+
+import com.vaadin.flow.shared.Registration;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.vaadin.example.griddata.PagedBackend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+
+/**
+ * Provinces data shared by all sessions: rows and backend of lazy data modes are created once per application
+ * and only read by grids, so a session keeps only its page cache, sort order and filters.
+ * In IN_MEMORY mode there is no backend, every grid keeps its own copy of rows.
+ * <p>
+ * Data is kept as immutable versions, reads need no locks. Adding or removing a row creates new version
+ * (rows are copied, backend is built again) and notifies listeners, so grids can apply the change
+ * to their aggregates and switch to new version.
+ */
+@Service
+public class ProvincesData {
+
+    private final ProvincesGrid.DataMode dataMode;
+    private volatile Version version;
+    private final List<Consumer<RowChange>> rowChangeListeners = new CopyOnWriteArrayList<>();
+
+
+    public ProvincesData(@Value("${provinces-grid.data-mode:IN_MEMORY}") ProvincesGrid.DataMode dataMode) {
+        this.dataMode = dataMode;
+        version = createVersion(0, createData());
+    }
+
+
+    /**
+     * Insert row at row id (position in rows)
+     */
+    public synchronized void addRow(int rowId, ProvinceEntity row) {
+        List<ProvinceEntity> rows = new ArrayList<>(version.rows);
+        rows.add(rowId, row);
+        changeVersion(rows, rowId, true);
+    }
+
+    /**
+     * Remove row with row id (position in rows)
+     */
+    public synchronized void removeRow(int rowId) {
+        List<ProvinceEntity> rows = new ArrayList<>(version.rows);
+        rows.remove(rowId);
+        changeVersion(rows, rowId, false);
+    }
+
+
+    /**
+     * Listener is called after every row change, in order of versions, on thread of the change
+     */
+    public Registration addRowChangeListener(Consumer<RowChange> listener) {
+        rowChangeListeners.add(listener);
+        return () -> rowChangeListeners.remove(listener);
+    }
+
+
+    private void changeVersion(List<ProvinceEntity> rows, int rowId, boolean added) {
+        Version previous = version;
+        version = createVersion(previous.number + 1, rows);
+        RowChange change = new RowChange(previous, version, rowId, added);
+        rowChangeListeners.forEach(listener -> listener.accept(change));
+    }
+
+    private Version createVersion(long number, List<ProvinceEntity> rows) {
+        List<ProvinceEntity> versionRows = Collections.unmodifiableList(rows);
+        if (dataMode == ProvincesGrid.DataMode.LAZY) {
+            return new Version(number, versionRows, new InMemoryProvincesBackend(versionRows));
+        } else if (dataMode == ProvincesGrid.DataMode.COLUMNAR) {
+            return new Version(number, versionRows, new ColumnarProvincesBackend(versionRows));
+        } else {
+            return new Version(number, versionRows, null);
+        }
+    }
+
+
+    private static List<ProvinceEntity> createData() {
+        return Arrays.asList(
+                new ProvinceEntity("Banten", "Serang", 9_662.92, 7.1, 8_098_277, 10_632_166, 11_904_562, 12_061_475, 1_248),
+                new ProvinceEntity("DKI Jakarta", "–", 664.01, 0.5, 8_361_079, 9_607_787, 10_562_088, 10_609_681, 15_978),
+                new ProvinceEntity("West Java", "Bandung", 35_377.76, 27.1, 35_724_093, 43_053_732, 48_274_160, 48_782_402, 1_379),
+                new ProvinceEntity("Central Java", "Semarang", 32_800.69, 25.3, 31_223_258,	32_382_657,	36_516_035,	36_742_501,	1_120),
+                new ProvinceEntity("Yogyakarta", "Yogyakarta", 3_133.15, 2.4, 3_121_045, 3_457_491,	3_668_719, 3_712_896, 1_185),
+                new ProvinceEntity("East Java",	"Surabaya",	47_799.75, 37.3, 34_765_993, 37_476_757, 40_665_696, 40_878_790, 855),
+                new ProvinceEntity("Madura Island of East Java", "–", 5_025.30,	3.3, 3_230_300,	3_622_763, 4_004_564, 4_031_060, 802)
+                );
+    }
+
+
+    public ProvincesGrid.DataMode getDataMode() {
+        return dataMode;
+    }
+
+    /**
+     * Current version of data
+     */
+    public Version getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Immutable data version
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Version {
+        // Versions are numbered in order of changes
+        private final long number;
+        // All rows, unmodifiable
+        private final List<ProvinceEntity> rows;
+        // Backend of lazy data modes, null in IN_MEMORY mode
+        private final PagedBackend<ProvinceEntity> backend;
+    }
+
+    /**
+     * Row added to or removed from data
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class RowChange {
+        private final Version previous;
+        private final Version current;
+        // Id of added row in current version, of removed row in previous version
+        private final int rowId;
+        private final boolean added;
+    }
+}
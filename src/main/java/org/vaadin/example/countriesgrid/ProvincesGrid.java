@@ -1,56 +1,300 @@
 package org.vaadin.example.countriesgrid;
 
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.grid.Grid;
-import com.vaadin.flow.data.provider.ListDataProvider;
-import org.apache.commons.compress.utils.Lists;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.shared.Registration;
+import org.apache.commons.lang3.StringUtils;
+import org.vaadin.example.gridaggregate.Aggregate;
+import org.vaadin.example.gridaggregate.GridAggregates;
+import org.vaadin.example.griddata.PageCachingDataProvider;
+import org.vaadin.example.griddata.PagedBackend;
+import org.vaadin.example.gridfilter.PrefixFilters;
+import org.vaadin.example.gridfilter.RowFilterPipeline;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Data from:
  * <a href="https://en.wikipedia.org/wiki/Java">...</a>
+ * <p>
+ * Data modes:
+ * IN_MEMORY keeps all rows in session. Header filters are resolved by prefix indexes and combined by {@link RowFilterPipeline}
+ * into ids of filtered rows, grid pages through them.
+ * LAZY fetches only requested window from backend by pages, sorting and header filters are done by backend.
+ * Backend is shared by all sessions (see {@link ProvincesData}), session keeps only cached pages and its filters.
+ * COLUMNAR is lazy mode over columnar backend, rows are kept in primitive columns and materialized only for fetched pages.
+ * <p>
+ * Column footers show aggregates of filtered rows (see {@link GridAggregates}) in all modes.
+ * Rows added to or removed from shared data are applied to aggregates incrementally.
  */
 public class ProvincesGrid {
 
+    public enum DataMode {
+        IN_MEMORY, LAZY, COLUMNAR
+    }
+
+    // Lazy mode paging
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 20;
+
     private final Grid<ProvinceEntity> component;
-    private final ListDataProvider<ProvinceEntity> dataProvider;
+    private final ProvincesData data;
+    // Shown version of shared data, its changes are applied in order of versions
+    private ProvincesData.Version version;
+    private Registration rowChangeRegistration;
     private final List<ProvinceEntity> dataList = new ArrayList<>();
+    // In-memory mode
+    private DataProvider<ProvinceEntity, Void> dataProvider;
+    private PrefixFilters<ProvinceEntity> prefixFilters;
+    // Ids of rows passing filters (positions in data list) in data order, null for all rows
+    private int[] viewRowIds;
+    // Lazy mode: backend of shown version, shared by all sessions; pages are cached per session
+    private PagedBackend<ProvinceEntity> backend;
+    private PageCachingDataProvider<ProvinceEntity> pagedDataProvider;
+    private final Map<String, String> backendFilters = new HashMap<>();
+    // Values of aggregated columns in backend of shown version. Map COLUMN KEY => value by row id
+    private final Map<String, IntFunction<?>> backendColumnValues = new HashMap<>();
+    // Footer aggregates over filtered rows
+    private final GridAggregates aggregates;
 
     public ProvincesGrid() {
+        this(DataMode.IN_MEMORY);
+    }
+
+    /**
+     * Grid over own data, not shared with other grids
+     *
+     * @param dataMode - how rows are kept and fetched
+     */
+    public ProvincesGrid(DataMode dataMode) {
+        this(new ProvincesData(dataMode));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param data - rows and backend shared by grids of application
+     */
+    public ProvincesGrid(ProvincesData data) {
+        this.data = data;
         component = new Grid<>();
         component.setSizeFull();
         component.setSelectionMode(Grid.SelectionMode.SINGLE);
         component.setColumnReorderingAllowed(true);
-        dataProvider = new ListDataProvider<>(dataList);
-        dataList.addAll(createData());
-        component.setDataProvider(dataProvider);
+        version = data.getVersion();
+        List<ProvinceEntity> rows = version.getRows();
+        backend = version.getBackend();
+        if (backend != null) {
+            pagedDataProvider = new PageCachingDataProvider<>(backend, PAGE_SIZE, MAX_CACHED_PAGES);
+            component.setDataProvider(pagedDataProvider.getDataProvider());
+        } else {
+            dataProvider = DataProvider.fromCallbacks(this::fetchRows, query -> viewRowIds == null ? dataList.size() : viewRowIds.length);
+            dataList.addAll(rows);
+            prefixFilters = new PrefixFilters<>(dataList);
+            component.setDataProvider(dataProvider);
+        }
         //dataProvider.refreshAll();
+        // Row ids of backends and of data list are positions in the same rows
+        aggregates = new GridAggregates(rows.size());
+        // Footers of shared column definitions are taken from grid
+        ComponentUtil.setData(component, GridAggregates.class, aggregates);
         new ProvincesGridColumns(this);
+        // Changes of shared data are applied while grid is shown
+        component.addAttachListener(event -> {
+            UI ui = event.getUI();
+            rowChangeRegistration = data.addRowChangeListener(change -> ui.access(() -> applyRowChange(change)));
+            // Data changed while grid was detached
+            if (version != data.getVersion()) showVersion(data.getVersion());
+        });
+        component.addDetachListener(event -> {
+            rowChangeRegistration.remove();
+            rowChangeRegistration = null;
+        });
+    }
+
+
+    /**
+     * Register column values for sorting and filtering by column key
+     */
+    public void registerColumnValues(String columnKey, ValueProvider<ProvinceEntity, ?> valueProvider) {
+        // Shared lazy backends know their columns
+        if (!isLazy()) prefixFilters.addColumn(columnKey, valueProvider);
+    }
+
+
+    /**
+     * Register column aggregates shown in footer. In lazy modes values are read from backend of shown version.
+     */
+    public void registerColumnAggregates(String columnKey, ValueProvider<ProvinceEntity, ?> valueProvider, Aggregate... columnAggregates) {
+        if (isLazy()) {
+            IntFunction<?> columnValues = backend.getColumnValues(columnKey);
+            if (columnValues == null) return;
+            backendColumnValues.put(columnKey, columnValues);
+            aggregates.addColumn(columnKey, row -> backendColumnValues.get(columnKey).apply(row), columnAggregates);
+        } else {
+            aggregates.addColumn(columnKey, row -> valueProvider.apply(dataList.get(row)), columnAggregates);
+        }
+    }
+
+
+    /**
+     * Set header "starts with" filter, blank value removes filter
+     */
+    public void setFilter(String columnKey, String value) {
+        if (isLazy()) {
+            // Filters are pushed down to backend
+            if (StringUtils.isNotBlank(value)) {
+                backendFilters.put(columnKey, value);
+            } else {
+                backendFilters.remove(columnKey);
+            }
+        } else {
+            prefixFilters.setPrefix(columnKey, value);
+        }
+        refreshView();
+    }
+
+
+    /**
+     * Insert row to shared data, all grids over the data show it
+     *
+     * @param rowId - position in data (not in filtered or sorted rows)
+     */
+    public void addRow(int rowId, ProvinceEntity row) {
+        data.addRow(rowId, row);
     }
 
-    private List<ProvinceEntity> createData() {
-        return Arrays.asList(
-                new ProvinceEntity("Banten", "Serang", 9_662.92, 7.1, 8_098_277, 10_632_166, 11_904_562, 12_061_475, 1_248),
-                new ProvinceEntity("DKI Jakarta", "–", 664.01, 0.5, 8_361_079, 9_607_787, 10_562_088, 10_609_681, 15_978),
-                new ProvinceEntity("West Java", "Bandung", 35_377.76, 27.1, 35_724_093, 43_053_732, 48_274_160, 48_782_402, 1_379),
-                new ProvinceEntity("Western Java (3 areas above)", "", 45_704.69, 34.7,	52_183_449,	63_293_685,	70_740_810,	71_453_558,	1_563),
-                new ProvinceEntity("Central Java", "Semarang", 32_800.69, 25.3, 31_223_258,	32_382_657,	36_516_035,	36_742_501,	1_120),
-                new ProvinceEntity("Yogyakarta", "Yogyakarta", 3_133.15, 2.4, 3_121_045, 3_457_491,	3_668_719, 3_712_896, 1_185),
-                new ProvinceEntity("Central Java Region (2 areas above)", "", 35_933.84, 27.7, 34_344_303, 35_840_148, 40_184_754, 40_455_397, 1_126),
-                new ProvinceEntity("East Java",	"Surabaya",	47_799.75, 37.3, 34_765_993, 37_476_757, 40_665_696, 40_878_790, 855),
-                new ProvinceEntity("Region Administered as Java", "Jakarta", 129_438.28, 100.0, 121_293_745, 136_610_590, 151_591_260, 152_787_745, 1_180),
-                new ProvinceEntity("Madura Island of East Java", "–", 5_025.30,	3.3, 3_230_300,	3_622_763, 4_004_564, 4_031_060, 802),
-                new ProvinceEntity("Java Island", "–", 124_412.98, 96.7, 118_063_445, 132_987_827, 147_586_696,	148_756_685, 1_196)
-                );
+    /**
+     * Remove row from shared data, all grids over the data stop showing it
+     *
+     * @param rowId - position in data (not in filtered or sorted rows)
+     */
+    public void removeRow(int rowId) {
+        data.removeRow(rowId);
+    }
+
+
+    /**
+     * Shared data is changed: changed row is added to or subtracted from aggregates, grid switches to new version
+     */
+    private void applyRowChange(ProvincesData.RowChange change) {
+        // Shown already, grid was attached after change
+        if (change.getCurrent().getNumber() <= version.getNumber()) return;
+        if (change.getPrevious() != version) {
+            showVersion(data.getVersion());
+            return;
+        }
+        int rowId = change.getRowId();
+        // Removed row is subtracted while its values can be read
+        if (!change.isAdded()) aggregates.rowRemoved(rowId);
+        version = change.getCurrent();
+        if (isLazy()) {
+            useBackend(version.getBackend());
+        } else {
+            if (change.isAdded()) {
+                dataList.add(rowId, version.getRows().get(rowId));
+            } else {
+                dataList.remove(rowId);
+            }
+            prefixFilters.invalidate();
+            viewRowIds = prefixFilters.getMatchingRowIds();
+            dataProvider.refreshAll();
+        }
+        if (change.isAdded()) aggregates.rowAdded(rowId, isInView(rowId));
+    }
+
+    /**
+     * Show other version of shared data, aggregates are recomputed
+     */
+    private void showVersion(ProvincesData.Version shownVersion) {
+        version = shownVersion;
+        if (isLazy()) {
+            useBackend(version.getBackend());
+        } else {
+            dataList.clear();
+            dataList.addAll(version.getRows());
+            prefixFilters.invalidate();
+        }
+        aggregates.reset(version.getRows().size());
+        refreshView();
+    }
+
+    private void useBackend(PagedBackend<ProvinceEntity> versionBackend) {
+        backend = versionBackend;
+        backendColumnValues.replaceAll((columnKey, columnValues) -> versionBackend.getColumnValues(columnKey));
+        pagedDataProvider.setBackend(versionBackend);
+    }
+
+
+    /**
+     * Apply filters to grid rows and aggregates
+     */
+    private void refreshView() {
+        if (isLazy()) {
+            pagedDataProvider.getDataProvider().setFilter(new HashMap<>(backendFilters));
+            if (backendFilters.isEmpty()) {
+                aggregates.setView((BitSet) null);
+            } else {
+                aggregates.setView(backend.filterRowIds(backendFilters));
+            }
+        } else {
+            // All active filters are resolved by prefix indexes in one filter pipeline
+            viewRowIds = prefixFilters.getMatchingRowIds();
+            dataProvider.refreshAll();
+            if (viewRowIds == null) {
+                aggregates.setView((BitSet) null);
+            } else {
+                aggregates.setView(viewRowIds);
+            }
+        }
+    }
+
+    private boolean isInView(int rowId) {
+        if (isLazy()) return backendFilters.isEmpty() || Arrays.binarySearch(backend.filterRowIds(backendFilters), rowId) >= 0;
+        return viewRowIds == null || Arrays.binarySearch(viewRowIds, rowId) >= 0;
+    }
+
+    /**
+     * Window of filtered rows in in-memory mode, sorted by comparators of grid columns
+     */
+    private Stream<ProvinceEntity> fetchRows(Query<ProvinceEntity, Void> query) {
+        Stream<ProvinceEntity> rows = viewRowIds == null ? dataList.stream() : IntStream.of(viewRowIds).mapToObj(dataList::get);
+        if (query.getInMemorySorting() != null) rows = rows.sorted(query.getInMemorySorting());
+        return rows.skip(query.getOffset()).limit(query.getLimit());
+    }
+
+
+    public boolean isLazy() {
+        return backend != null;
     }
 
     public Grid<ProvinceEntity> getComponent() {
         return component;
     }
 
-    public ListDataProvider<ProvinceEntity> getDataProvider() {
+    /**
+     * Data provider of in-memory mode, null in lazy mode
+     */
+    public DataProvider<ProvinceEntity, Void> getDataProvider() {
         return dataProvider;
     }
+
+    /**
+     * Rows of in-memory mode, empty in lazy mode
+     */
+    public List<ProvinceEntity> getDataList() {
+        return dataList;
+    }
 }
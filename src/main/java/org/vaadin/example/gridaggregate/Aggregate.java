@@ -0,0 +1,23 @@
+package org.vaadin.example.gridaggregate;
+
+
+/**
+ * Aggregate function of column footer, nulls are skipped
+ */
+public enum Aggregate {
+    SUM("Sum"),
+    AVG("Avg"),
+    MIN("Min"),
+    MAX("Max"),
+    COUNT("Count");
+
+    private final String label;
+
+    Aggregate(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,196 @@
+package org.vaadin.example.gridaggregate;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.html.Span;
+
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+
+/**
+ * Aggregates of grid columns over current view (filtered rows), shown in column footers.
+ * Rows are addressed by row ids (positions in grid data), values are read by row id from where data is kept:
+ * in-memory rows or columns of lazy backend, so rows are not materialized for aggregates.
+ * When view is changed, only rows that left or entered it are subtracted or added, so changing a filter costs
+ * the size of difference, not the size of data; if difference is bigger than new view, aggregates are recomputed.
+ * Added and removed rows are applied the same way, ids of following rows are shifted.
+ */
+public class GridAggregates {
+
+    private int rowCount;
+    // Aggregated columns. Map COLUMN KEY => aggregates
+    private final Map<String, ColumnAggregates> columns = new LinkedHashMap<>();
+    private final DecimalFormat format = new DecimalFormat("#,##0.##");
+    // Rows of current view
+    private final BitSet viewRows;
+    // Reused by view changes: rows that left or entered view, rows of view given by ids
+    private final BitSet changedRows;
+    private final BitSet requestedRows;
+
+
+    public GridAggregates(int rowCount) {
+        this.rowCount = rowCount;
+        viewRows = new BitSet(rowCount);
+        viewRows.set(0, rowCount);
+        changedRows = new BitSet(rowCount);
+        requestedRows = new BitSet(rowCount);
+    }
+
+
+    /**
+     * @param rowValues - value of column by row id
+     */
+    public void addColumn(String columnKey, IntFunction<?> rowValues, Aggregate... aggregates) {
+        ColumnAggregates column = new ColumnAggregates(rowValues, aggregates);
+        columns.put(columnKey, column);
+        for (int row = viewRows.nextSetBit(0); row >= 0; row = viewRows.nextSetBit(row + 1)) {
+            column.aggregate.add(rowValues.apply(row));
+        }
+        updateFooter(column);
+    }
+
+
+    /**
+     * Footer component of column, null if column is not aggregated
+     */
+    public Component getFooter(String columnKey) {
+        ColumnAggregates column = columns.get(columnKey);
+        return column == null ? null : column.footer;
+    }
+
+    /**
+     * Value of column aggregate in current view, null if there are no values
+     */
+    public Double getValue(String columnKey, Aggregate aggregate) {
+        ColumnAggregates column = columns.get(columnKey);
+        return column == null ? null : column.aggregate.get(aggregate);
+    }
+
+
+    /**
+     * View is changed by filters
+     *
+     * @param rowIds - ids of rows in view, all rows if null; it is not kept or changed
+     */
+    public void setView(BitSet rowIds) {
+        if (rowIds == null) {
+            requestedRows.clear();
+            requestedRows.set(0, rowCount);
+            rowIds = requestedRows;
+        }
+        // Rows that left or entered view
+        changedRows.clear();
+        changedRows.or(viewRows);
+        changedRows.xor(rowIds);
+        if (changedRows.cardinality() > rowIds.cardinality()) {
+            columns.values().forEach(column -> column.aggregate.clear());
+            apply(rowIds);
+        } else {
+            for (int row = changedRows.nextSetBit(0); row >= 0; row = changedRows.nextSetBit(row + 1)) {
+                boolean entered = !viewRows.get(row);
+                for (ColumnAggregates column : columns.values()) {
+                    if (entered) column.aggregate.add(column.rowValues.apply(row));
+                    else column.aggregate.remove(column.rowValues.apply(row));
+                }
+            }
+        }
+        viewRows.clear();
+        viewRows.or(rowIds);
+        columns.values().forEach(this::updateFooter);
+    }
+
+    public void setView(int[] rowIds) {
+        requestedRows.clear();
+        for (int rowId : rowIds) requestedRows.set(rowId);
+        setView(requestedRows);
+    }
+
+
+    /**
+     * Row is inserted in grid data at row id, values of column must already return it
+     *
+     * @param inView - row passes current filters
+     */
+    public void rowAdded(int rowId, boolean inView) {
+        for (int row = viewRows.previousSetBit(rowCount - 1); row >= rowId; row = viewRows.previousSetBit(row - 1)) {
+            viewRows.clear(row);
+            viewRows.set(row + 1);
+        }
+        rowCount++;
+        if (!inView) return;
+        viewRows.set(rowId);
+        columns.values().forEach(column -> {
+            column.aggregate.add(column.rowValues.apply(rowId));
+            updateFooter(column);
+        });
+    }
+
+    /**
+     * Row is removed from grid data, must be called before removal (values of column still return it)
+     */
+    public void rowRemoved(int rowId) {
+        if (viewRows.get(rowId)) {
+            columns.values().forEach(column -> {
+                column.aggregate.remove(column.rowValues.apply(rowId));
+                updateFooter(column);
+            });
+        }
+        viewRows.clear(rowId);
+        for (int row = viewRows.nextSetBit(rowId + 1); row >= 0; row = viewRows.nextSetBit(row + 1)) {
+            viewRows.clear(row);
+            viewRows.set(row - 1);
+        }
+        rowCount--;
+    }
+
+    /**
+     * Grid data is replaced, all rows are in view and aggregates are recomputed
+     */
+    public void reset(int rowCount) {
+        this.rowCount = rowCount;
+        viewRows.clear();
+        viewRows.set(0, rowCount);
+        columns.values().forEach(column -> column.aggregate.clear());
+        apply(viewRows);
+        columns.values().forEach(this::updateFooter);
+    }
+
+
+    private void apply(BitSet rowIds) {
+        for (int row = rowIds.nextSetBit(0); row >= 0; row = rowIds.nextSetBit(row + 1)) {
+            for (ColumnAggregates column : columns.values()) {
+                column.aggregate.add(column.rowValues.apply(row));
+            }
+        }
+    }
+
+    private void updateFooter(ColumnAggregates column) {
+        column.footer.setText(column.aggregates.stream()
+                .map(aggregate -> {
+                    Double value = column.aggregate.get(aggregate);
+                    return aggregate.getLabel() + ": " + (value == null ? "–" : format.format(value));
+                })
+                .collect(Collectors.joining(" · ")));
+    }
+
+
+    private static class ColumnAggregates {
+        private final IntFunction<?> rowValues;
+        private final Set<Aggregate> aggregates;
+        private final RunningAggregate aggregate;
+        private final Span footer = new Span();
+
+        private ColumnAggregates(IntFunction<?> rowValues, Aggregate[] aggregates) {
+            this.rowValues = rowValues;
+            this.aggregates = aggregates.length == 0 ? EnumSet.noneOf(Aggregate.class) : EnumSet.copyOf(Arrays.asList(aggregates));
+            aggregate = new RunningAggregate(this.aggregates.contains(Aggregate.MIN) || this.aggregates.contains(Aggregate.MAX));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.vaadin.example.gridaggregate;
+
+import java.util.TreeMap;
+
+
+/**
+ * Aggregates of column values, maintained by adding and removing single values.
+ * Min and max are kept by counted sorted values, only if they are needed.
+ */
+class RunningAggregate {
+
+    private long count = 0;
+    private double sum = 0;
+    // Map VALUE => count of rows with value, null if min and max are not needed
+    private final TreeMap<Double, Integer> values;
+
+
+    RunningAggregate(boolean keepValues) {
+        values = keepValues ? new TreeMap<>() : null;
+    }
+
+
+    void add(Object value) {
+        if (value == null) return;
+        count++;
+        if (!(value instanceof Number)) return;
+        double number = ((Number) value).doubleValue();
+        sum += number;
+        if (values != null) values.merge(number, 1, Integer::sum);
+    }
+
+    void remove(Object value) {
+        if (value == null) return;
+        count--;
+        if (!(value instanceof Number)) return;
+        double number = ((Number) value).doubleValue();
+        sum -= number;
+        if (values != null) values.computeIfPresent(number, (key, rowCount) -> rowCount == 1 ? null : rowCount - 1);
+    }
+
+    void clear() {
+        count = 0;
+        sum = 0;
+        if (values != null) values.clear();
+    }
+
+
+    /**
+     * Value of aggregate, null if there are no values (except count)
+     */
+    Double get(Aggregate aggregate) {
+        switch (aggregate) {
+            case COUNT:
+                return (double) count;
+            case SUM:
+                return count == 0 ? null : sum;
+            case AVG:
+                return count == 0 ? null : sum / count;
+            case MIN:
+                return values == null || values.isEmpty() ? null : values.firstKey();
+            case MAX:
+                return values == null || values.isEmpty() ? null : values.lastKey();
+            default:
+                throw new IllegalArgumentException("Unknown aggregate " + aggregate);
+        }
+    }
+}
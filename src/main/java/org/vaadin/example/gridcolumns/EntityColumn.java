@@ -0,0 +1,45 @@
+package org.vaadin.example.gridcolumns;
+
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.function.ValueProvider;
+import lombok.AllArgsConstructor;
+import org.vaadin.example.gridaggregate.Aggregate;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+
+/**
+ * Grid column of entity field, generated from {@link GridColumn} annotation
+ */
+@Getter
+@AllArgsConstructor
+public final class EntityColumn<T> implements Serializable {
+
+    private final String key;
+    private final String header;
+    private final String width;
+    private final boolean frozen;
+    private final boolean sortable;
+    private final boolean filterable;
+    private final Aggregate[] aggregates;
+    // Field type, primitives are wrapped
+    private final Class<?> valueType;
+    private final ValueProvider<T, Object> valueProvider;
+
+
+    /**
+     * Add column to grid. Sortable column of comparable values is sorted in memory with nulls first.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Grid.Column<T> addTo(Grid<T> grid) {
+        Grid.Column<T> column = grid.addColumn(valueProvider)
+                .setWidth(width).setSortable(sortable).setResizable(true).setFrozen(frozen);
+        if (sortable && Comparable.class.isAssignableFrom(valueType)) {
+            column.setComparator(Comparator.comparing(entity -> (Comparable) valueProvider.apply(entity),
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+        }
+        return column;
+    }
+}
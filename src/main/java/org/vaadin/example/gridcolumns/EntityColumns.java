@@ -0,0 +1,167 @@
+package org.vaadin.example.gridcolumns;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.function.ValueProvider;
+import org.vaadin.example.gridaggregate.GridAggregates;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+
+/**
+ * Grid columns of entity class, generated from {@link GridColumn} annotations of its fields (in declaration order).
+ * Generated once per class. Values are read by accessors generated with {@link LambdaMetafactory} from getters,
+ * so reading a value is a plain interface call, without reflection.
+ */
+public final class EntityColumns<T> {
+
+    private static final ClassValue<EntityColumns<?>> COLUMNS = new ClassValue<EntityColumns<?>>() {
+        @Override
+        protected EntityColumns<?> computeValue(Class<?> entityClass) {
+            return new EntityColumns<>(entityClass);
+        }
+    };
+
+    private final Class<T> entityClass;
+    private final List<EntityColumn<T>> columns;
+    // Map FIELD NAME => value provider
+    private final Map<String, ValueProvider<T, Object>> valueProviders = new HashMap<>();
+
+
+    private EntityColumns(Class<T> entityClass) {
+        this.entityClass = entityClass;
+        List<EntityColumn<T>> entityColumns = new ArrayList<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            GridColumn[] annotations = field.getAnnotationsByType(GridColumn.class);
+            if (annotations.length == 0) continue;
+            ValueProvider<T, Object> valueProvider = new Accessor<>(entityClass, field.getName(), createAccessor(entityClass, field));
+            valueProviders.put(field.getName(), valueProvider);
+            Class<?> valueType = MethodType.methodType(field.getType()).wrap().returnType();
+            for (GridColumn annotation : annotations) {
+                entityColumns.add(new EntityColumn<>(annotation.key(), annotation.header(), annotation.width(),
+                        annotation.frozen(), annotation.sortable(), annotation.filterable(), annotation.aggregates(), valueType, valueProvider));
+            }
+        }
+        columns = Collections.unmodifiableList(entityColumns);
+    }
+
+
+    @SuppressWarnings("unchecked")
+    public static <T> EntityColumns<T> of(Class<T> entityClass) {
+        return (EntityColumns<T>) COLUMNS.get(entityClass);
+    }
+
+
+    public List<EntityColumn<T>> getColumns() {
+        return columns;
+    }
+
+    public ValueProvider<T, Object> getValueProvider(String fieldName) {
+        return valueProviders.get(fieldName);
+    }
+
+
+    /**
+     * Column definitions. Header of filterable column is created by {@link FilterHeaderFactory} of grid
+     * (grid's component data), text header is used if grid has no factory.
+     * Footer of aggregated column is taken from {@link GridAggregates} of grid, if grid has them.
+     */
+    @SuppressWarnings("unchecked")
+    public List<GridColumnDefinition<T>> createDefinitions() {
+        List<GridColumnDefinition<T>> definitions = new ArrayList<>(columns.size());
+        for (EntityColumn<T> column : columns) {
+            GridColumnDefinition<T> definition;
+            if (column.isFilterable()) {
+                definition = GridColumnDefinition.withHeader(column.getKey(), column.getHeader(), grid -> {
+                    FilterHeaderFactory<T> filterHeaderFactory = ComponentUtil.getData(grid, FilterHeaderFactory.class);
+                    return filterHeaderFactory != null ? filterHeaderFactory.create(grid, column) : new Text(column.getHeader());
+                }, column::addTo);
+            } else {
+                definition = GridColumnDefinition.of(column.getKey(), column.getHeader(), column::addTo);
+            }
+            definition = definition.withFrozen(column.isFrozen());
+            if (column.getAggregates().length > 0) {
+                definition = definition.withFooter(grid -> {
+                    GridAggregates aggregates = ComponentUtil.getData(grid, GridAggregates.class);
+                    return aggregates != null ? aggregates.getFooter(column.getKey()) : null;
+                });
+            }
+            definitions.add(definition);
+        }
+        return definitions;
+    }
+
+
+    /**
+     * Function calling getter of field, generated by {@link LambdaMetafactory}
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Function<T, Object> createAccessor(Class<T> entityClass, Field field) {
+        Method getter = findGetter(entityClass, field);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle getterHandle = lookup.unreflect(getter);
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    getterHandle,
+                    getterHandle.type().wrap());
+            return (Function<T, Object>) callSite.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Can't create accessor of grid column field " + entityClass.getName() + "." + field.getName(), e);
+        }
+    }
+
+    private static Method findGetter(Class<?> entityClass, Field field) {
+        String property = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        try {
+            return entityClass.getMethod("get" + property);
+        } catch (NoSuchMethodException e) {
+            try {
+                return entityClass.getMethod("is" + property);
+            } catch (NoSuchMethodException isException) {
+                throw new IllegalStateException("No public getter of grid column field " + entityClass.getName() + "." + field.getName());
+            }
+        }
+    }
+
+
+    /**
+     * Value provider over generated accessor. Accessor is not serializable, so it is taken from
+     * columns of entity class again after deserialization.
+     */
+    private static final class Accessor<T> implements ValueProvider<T, Object> {
+
+        private final Class<T> entityClass;
+        private final String fieldName;
+        private final transient Function<T, Object> getter;
+
+        private Accessor(Class<T> entityClass, String fieldName, Function<T, Object> getter) {
+            this.entityClass = entityClass;
+            this.fieldName = fieldName;
+            this.getter = getter;
+        }
+
+        @Override
+        public Object apply(T entity) {
+            return getter.apply(entity);
+        }
+
+        private Object readResolve() {
+            return EntityColumns.of(entityClass).getValueProvider(fieldName);
+        }
+    }
+}
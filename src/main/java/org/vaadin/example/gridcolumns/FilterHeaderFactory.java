@@ -0,0 +1,17 @@
+package org.vaadin.example.gridcolumns;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.grid.Grid;
+
+import java.io.Serializable;
+
+
+/**
+ * Creates header filter component of filterable column, set for grid by columns manager.
+ * Column definitions are shared, so filter (and its connection to grid's data) is made by grid's own factory.
+ */
+@FunctionalInterface
+public interface FilterHeaderFactory<T> extends Serializable {
+
+    Component create(Grid<T> grid, EntityColumn<T> column);
+}
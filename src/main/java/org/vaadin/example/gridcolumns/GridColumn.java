@@ -0,0 +1,44 @@
+package org.vaadin.example.gridcolumns;
+
+import org.vaadin.example.gridaggregate.Aggregate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Grid column of entity field, see {@link EntityColumns}.
+ * Field can be shown in several columns (for example with and without header filter), then annotation is repeated.
+ * Value is read by field's getter.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+@Repeatable(GridColumn.List.class)
+public @interface GridColumn {
+
+    String key();
+
+    String header();
+
+    String width() default "60px";
+
+    boolean frozen() default false;
+
+    boolean sortable() default true;
+
+    // Column header is filter field, created by filter header factory of grid
+    boolean filterable() default false;
+
+    // Aggregates of filtered rows shown in column footer, see GridAggregates
+    Aggregate[] aggregates() default {};
+
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    @interface List {
+        GridColumn[] value();
+    }
+}
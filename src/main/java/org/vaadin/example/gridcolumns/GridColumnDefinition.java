@@ -0,0 +1,75 @@
+package org.vaadin.example.gridcolumns;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.function.SerializableFunction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+/**
+ * Immutable definition of grid column, the same for all users, so one instance is shared by all sessions.
+ * Components (column, header) are created from it per grid; factories must not capture session objects,
+ * session data can be taken from the grid (for example by {@link com.vaadin.flow.component.ComponentUtil#getData}).
+ */
+@Getter
+@AllArgsConstructor
+public final class GridColumnDefinition<T> {
+
+    private final String key;
+    // Column name in columns manager menu
+    private final String headerText;
+    private final SerializableFunction<Grid<T>, Component> headerFactory;
+    // Is it needed to apply column key and header (or it is done by column factory)
+    private final boolean populateKey;
+    private final boolean populateHeader;
+    private final SerializableFunction<Grid<T>, Grid.Column<T>> columnFactory;
+    // Null if column has no footer
+    private final SerializableFunction<Grid<T>, Component> footerFactory;
+    // Frozen columns are kept at the left side of grid, column factory must freeze column instance
+    private final boolean frozen;
+
+
+    /**
+     * Column with text header
+     */
+    public static <T> GridColumnDefinition<T> of(String key, String headerText, SerializableFunction<Grid<T>, Grid.Column<T>> columnFactory) {
+        return new GridColumnDefinition<>(key, headerText, grid -> new Text(headerText), true, true, columnFactory, null, false);
+    }
+
+    /**
+     * Column with component header
+     */
+    public static <T> GridColumnDefinition<T> withHeader(String key, String headerText, SerializableFunction<Grid<T>, Component> headerFactory,
+                                                         SerializableFunction<Grid<T>, Grid.Column<T>> columnFactory) {
+        return new GridColumnDefinition<>(key, headerText, headerFactory, true, true, columnFactory, null, false);
+    }
+
+    /**
+     * The same column with footer, footer factory may return null
+     */
+    public GridColumnDefinition<T> withFooter(SerializableFunction<Grid<T>, Component> footerFactory) {
+        return new GridColumnDefinition<>(key, headerText, headerFactory, populateKey, populateHeader, columnFactory, footerFactory, frozen);
+    }
+
+    /**
+     * The same column, frozen or not
+     */
+    public GridColumnDefinition<T> withFrozen(boolean frozen) {
+        return new GridColumnDefinition<>(key, headerText, headerFactory, populateKey, populateHeader, columnFactory, footerFactory, frozen);
+    }
+
+
+    public Component createHeader(Grid<T> grid) {
+        return headerFactory.apply(grid);
+    }
+
+    public Grid.Column<T> createColumn(Grid<T> grid) {
+        return columnFactory.apply(grid);
+    }
+
+    public Component createFooter(Grid<T> grid) {
+        return footerFactory == null ? null : footerFactory.apply(grid);
+    }
+}
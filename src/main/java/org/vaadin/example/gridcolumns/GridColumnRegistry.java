@@ -0,0 +1,41 @@
+package org.vaadin.example.gridcolumns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+
+/**
+ * Application wide registry of column definitions. Definitions of a grid are created once,
+ * by the first session that shows the grid, and are shared by all sessions after that.
+ * Definitions generated from entity class are kept by class name.
+ */
+public final class GridColumnRegistry {
+
+    // Map GRID ID (entity class name for generated definitions) => column definitions
+    private static final Map<String, List<? extends GridColumnDefinition<?>>> DEFINITIONS = new ConcurrentHashMap<>();
+
+    private GridColumnRegistry() {
+    }
+
+
+    /**
+     * Column definitions of grid, created by factory on the first call
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<GridColumnDefinition<T>> getDefinitions(String gridId, Supplier<List<GridColumnDefinition<T>>> factory) {
+        return (List<GridColumnDefinition<T>>) DEFINITIONS.computeIfAbsent(gridId,
+                id -> Collections.unmodifiableList(new ArrayList<>(factory.get())));
+    }
+
+
+    /**
+     * Column definitions generated from {@link GridColumn} annotations of entity class
+     */
+    public static <T> List<GridColumnDefinition<T>> getDefinitions(Class<T> entityClass) {
+        return getDefinitions(entityClass.getName(), () -> EntityColumns.of(entityClass).createDefinitions());
+    }
+}
@@ -0,0 +1,93 @@
+package org.vaadin.example.griddata;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Column-oriented storage of grid rows: primitive arrays with null bitmaps for numbers,
+ * dictionary-encoded strings. Row objects are not kept, rows are addressed by index
+ * and materialized only when grid asks for them.
+ */
+public class ColumnarRowStore {
+
+    private final int rowCount;
+    // Map COLUMN NAME => column
+    private final Map<String, StoreColumn> columns = new LinkedHashMap<>();
+
+
+    public ColumnarRowStore(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+
+    public <C extends StoreColumn> C addColumn(String columnName, C column) {
+        if (column.size() != rowCount) {
+            throw new IllegalArgumentException("Column " + columnName + " has " + column.size() + " rows, store has " + rowCount);
+        }
+        columns.put(columnName, column);
+        return column;
+    }
+
+
+    /**
+     * Column by name, null if there is no such column
+     */
+    public StoreColumn getColumn(String columnName) {
+        return columns.get(columnName);
+    }
+
+    public Map<String, StoreColumn> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+
+    /**
+     * Lightweight view of one row, reads values from columns
+     */
+    public RowView getRow(int row) {
+        return new RowView(row);
+    }
+
+
+    public class RowView {
+
+        private final int row;
+
+        private RowView(int row) {
+            this.row = row;
+        }
+
+        public int getRowIndex() {
+            return row;
+        }
+
+        public boolean isNull(StoreColumn column) {
+            return column.isNull(row);
+        }
+
+        public Double getDouble(DoubleColumn column) {
+            return column.getValue(row);
+        }
+
+        public Integer getInt(IntColumn column) {
+            return column.getValue(row);
+        }
+
+        public String getString(StringColumn column) {
+            return column.getValue(row);
+        }
+
+        /**
+         * Boxed value by column name
+         */
+        public Object getValue(String columnName) {
+            return columns.get(columnName).getValue(row);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.vaadin.example.griddata;
+
+import com.vaadin.flow.function.ValueProvider;
+
+import java.util.BitSet;
+import java.util.List;
+
+
+/**
+ * Column of double values with null bitmap
+ */
+public final class DoubleColumn implements StoreColumn {
+
+    private final double[] values;
+    private final BitSet nulls;
+
+
+    private DoubleColumn(double[] values, BitSet nulls) {
+        this.values = values;
+        this.nulls = nulls;
+    }
+
+
+    public static <T> DoubleColumn of(List<T> rows, ValueProvider<T, Double> valueProvider) {
+        double[] values = new double[rows.size()];
+        BitSet nulls = new BitSet(rows.size());
+        for (int i = 0; i < values.length; i++) {
+            Double value = valueProvider.apply(rows.get(i));
+            if (value == null) nulls.set(i);
+            else values[i] = value;
+        }
+        return new DoubleColumn(values, nulls);
+    }
+
+
+    /**
+     * Primitive value, 0 for null
+     */
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    @Override
+    public Double getValue(int row) {
+        return nulls.get(row) ? null : values[row];
+    }
+
+    @Override
+    public String getText(int row) {
+        return nulls.get(row) ? null : Double.toString(values[row]);
+    }
+
+    @Override
+    public int compare(int row1, int row2) {
+        boolean null1 = nulls.get(row1);
+        boolean null2 = nulls.get(row2);
+        if (null1 || null2) return Boolean.compare(null2, null1);
+        return Double.compare(values[row1], values[row2]);
+    }
+}
@@ -0,0 +1,70 @@
+package org.vaadin.example.griddata;
+
+import com.vaadin.flow.function.ValueProvider;
+
+import java.util.BitSet;
+import java.util.List;
+
+
+/**
+ * Column of int values with null bitmap
+ */
+public final class IntColumn implements StoreColumn {
+
+    private final int[] values;
+    private final BitSet nulls;
+
+
+    private IntColumn(int[] values, BitSet nulls) {
+        this.values = values;
+        this.nulls = nulls;
+    }
+
+
+    public static <T> IntColumn of(List<T> rows, ValueProvider<T, Integer> valueProvider) {
+        int[] values = new int[rows.size()];
+        BitSet nulls = new BitSet(rows.size());
+        for (int i = 0; i < values.length; i++) {
+            Integer value = valueProvider.apply(rows.get(i));
+            if (value == null) nulls.set(i);
+            else values[i] = value;
+        }
+        return new IntColumn(values, nulls);
+    }
+
+
+    /**
+     * Primitive value, 0 for null
+     */
+    public int getInt(int row) {
+        return values[row];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    @Override
+    public Integer getValue(int row) {
+        return nulls.get(row) ? null : values[row];
+    }
+
+    @Override
+    public String getText(int row) {
+        return nulls.get(row) ? null : Integer.toString(values[row]);
+    }
+
+    @Override
+    public int compare(int row1, int row2) {
+        boolean null1 = nulls.get(row1);
+        boolean null2 = nulls.get(row2);
+        if (null1 || null2) return Boolean.compare(null2, null1);
+        return Integer.compare(values[row1], values[row2]);
+    }
+}
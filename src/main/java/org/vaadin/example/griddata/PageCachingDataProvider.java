@@ -0,0 +1,117 @@
+package org.vaadin.example.griddata;
+
+import com.vaadin.flow.data.provider.ConfigurableFilterDataProvider;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Lazy data provider over {@link PagedBackend}.
+ * Backend is queried by fixed size pages; recently used pages and counts are cached (per filter and sort order),
+ * so scrolling back and forth doesn't repeat queries and memory stays bounded by cache size.
+ */
+public class PageCachingDataProvider<T> {
+
+    private PagedBackend<T> backend;
+    private final int pageSize;
+    private final LinkedHashMap<PageKey, List<T>> pages;
+    private final LinkedHashMap<String, Integer> counts;
+    private final ConfigurableFilterDataProvider<T, Void, Map<String, String>> dataProvider;
+
+
+    /**
+     * Constructor
+     *
+     * @param backend        - rows source
+     * @param pageSize       - count of rows fetched from backend at once
+     * @param maxCachedPages - count of pages kept in memory
+     */
+    public PageCachingDataProvider(PagedBackend<T> backend, int pageSize, int maxCachedPages) {
+        this.backend = backend;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<PageKey, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, List<T>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+        this.counts = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+        this.dataProvider = DataProvider.<T, Map<String, String>>fromFilteringCallbacks(this::fetch, this::count)
+                .withConfigurableFilter();
+    }
+
+
+    public ConfigurableFilterDataProvider<T, Void, Map<String, String>> getDataProvider() {
+        return dataProvider;
+    }
+
+
+    /**
+     * Backend is replaced (for example by new version of its data), cached pages are dropped
+     */
+    public void setBackend(PagedBackend<T> backend) {
+        this.backend = backend;
+        invalidate();
+    }
+
+    /**
+     * Backend data is changed, cached pages are dropped
+     */
+    public void invalidate() {
+        pages.clear();
+        counts.clear();
+        dataProvider.refreshAll();
+    }
+
+
+    private Stream<T> fetch(Query<T, Map<String, String>> query) {
+        Map<String, String> filters = query.getFilter().orElse(Collections.emptyMap());
+        String querySignature = new TreeMap<>(filters) + "|" + query.getSortOrders().stream()
+                .map(sortOrder -> sortOrder.getSorted() + " " + sortOrder.getDirection())
+                .collect(Collectors.joining(","));
+        long end = (long) query.getOffset() + query.getLimit();
+        List<T> rows = new ArrayList<>(Math.min(query.getLimit(), pageSize * 4));
+        for (int pageIndex = query.getOffset() / pageSize; (long) pageIndex * pageSize < end; pageIndex++) {
+            int pageOffset = pageIndex * pageSize;
+            List<T> page = pages.computeIfAbsent(new PageKey(querySignature, pageIndex),
+                    pageKey -> backend.fetch(pageOffset, pageSize, query.getSortOrders(), filters));
+            int from = Math.max(query.getOffset() - pageOffset, 0);
+            int to = (int) Math.min(page.size(), end - pageOffset);
+            if (from < to) rows.addAll(page.subList(from, to));
+            // Last page
+            if (page.size() < pageSize) break;
+        }
+        return rows.stream();
+    }
+
+
+    private int count(Query<T, Map<String, String>> query) {
+        Map<String, String> filters = query.getFilter().orElse(Collections.emptyMap());
+        return counts.computeIfAbsent(new TreeMap<>(filters).toString(), filtersSignature -> backend.count(filters));
+    }
+
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class PageKey {
+        private final String querySignature;
+        private final int pageIndex;
+    }
+}
@@ -0,0 +1,29 @@
+package org.vaadin.example.griddata;
+
+import com.vaadin.flow.data.provider.QuerySortOrder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+
+/**
+ * Backend that returns grid rows by windows, with sorting and header filters applied on its side.
+ * Sort property is grid column key; filters are "starts with" filters, Map FILTER KEY => prefix.
+ */
+public interface PagedBackend<T> {
+
+    List<T> fetch(int offset, int limit, List<QuerySortOrder> sortOrders, Map<String, String> filters);
+
+    int count(Map<String, String> filters);
+
+    /**
+     * Ids of rows passing filters (positions in backend data), in data order
+     */
+    int[] filterRowIds(Map<String, String> filters);
+
+    /**
+     * Values of column by row id (position in backend data), for aggregates of filtered rows; null if there is no such column
+     */
+    IntFunction<?> getColumnValues(String columnKey);
+}
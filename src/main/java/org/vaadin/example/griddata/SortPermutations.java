@@ -0,0 +1,157 @@
+package org.vaadin.example.griddata;
+
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+
+/**
+ * Sorting of {@link ColumnarRowStore} rows without boxing and comparators.
+ * For every sorted column, permutation of all rows and dense rank of every row are computed once and cached.
+ * All rows sorted by one column are the cached permutation itself (descending one is cached on first use),
+ * filtered rows and ties of multi-column sorts are resolved by ranks in linear time.
+ * Cache must be invalidated when store data changes.
+ */
+public class SortPermutations {
+
+    private final ColumnarRowStore store;
+    // Map COLUMN NAME => permutation and ranks
+    private final Map<String, SortKey> sortKeys = new ConcurrentHashMap<>();
+
+
+    public SortPermutations(ColumnarRowStore store) {
+        this.store = store;
+    }
+
+
+    /**
+     * Sort rows. Sort is stable, rows with equal values keep order of rowIds.
+     *
+     * @param rowIds     - rows to sort (filtered ones), not modified; null for all store rows in store order
+     * @param sortOrders - sort orders by store column names, unknown columns are ignored
+     * @return sorted row ids, must not be modified (can be cached permutation); rowIds itself if there is nothing to sort by
+     */
+    public int[] sort(int[] rowIds, List<QuerySortOrder> sortOrders) {
+        List<SortKey> keys = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        for (QuerySortOrder sortOrder : sortOrders) {
+            SortKey key = getSortKey(sortOrder.getSorted());
+            if (key == null) continue;
+            keys.add(key);
+            descending.add(sortOrder.getDirection() == SortDirection.DESCENDING);
+        }
+        if (keys.isEmpty()) return rowIds;
+        if (keys.size() == 1 && rowIds == null) {
+            // All rows by one column - cached permutation is the result
+            return descending.get(0) ? keys.get(0).getDescendingPermutation() : keys.get(0).permutation;
+        }
+        // Stable sorts by ranks, from the least significant column
+        int[] sorted = rowIds != null ? rowIds : IntStream.range(0, store.getRowCount()).toArray();
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            sorted = keys.get(i).countingSort(sorted, descending.get(i));
+        }
+        return sorted;
+    }
+
+
+    /**
+     * Store data is changed, cached permutations are dropped
+     */
+    public void invalidate() {
+        sortKeys.clear();
+    }
+
+
+    private SortKey getSortKey(String columnName) {
+        StoreColumn column = store.getColumn(columnName);
+        return column == null ? null : sortKeys.computeIfAbsent(columnName, name -> new SortKey(column));
+    }
+
+
+    private static class SortKey {
+        // Rows in ascending order, nulls first
+        private final int[] permutation;
+        // Dense rank of row value: equal values have equal ranks. Array index - row
+        private final int[] ranks;
+        private final int distinctCount;
+        // All rows in descending order, computed on first use
+        private volatile int[] descendingPermutation;
+
+        private SortKey(StoreColumn column) {
+            int rowCount = column.size();
+            permutation = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) permutation[i] = i;
+            mergeSort(permutation, new int[rowCount], 0, rowCount, column);
+            ranks = new int[rowCount];
+            int rank = -1;
+            for (int i = 0; i < rowCount; i++) {
+                if (i == 0 || column.compare(permutation[i - 1], permutation[i]) != 0) rank++;
+                ranks[permutation[i]] = rank;
+            }
+            distinctCount = rank + 1;
+        }
+
+        private int[] getDescendingPermutation() {
+            int[] result = descendingPermutation;
+            if (result == null) {
+                result = reversed();
+                descendingPermutation = result;
+            }
+            return result;
+        }
+
+        /**
+         * All rows in descending order, equal values keep ascending row order
+         */
+        private int[] reversed() {
+            int[] result = new int[permutation.length];
+            int position = 0;
+            int end = permutation.length;
+            while (end > 0) {
+                int start = end - 1;
+                int rank = ranks[permutation[start]];
+                while (start > 0 && ranks[permutation[start - 1]] == rank) start--;
+                System.arraycopy(permutation, start, result, position, end - start);
+                position += end - start;
+                end = start;
+            }
+            return result;
+        }
+
+        private int[] countingSort(int[] rowIds, boolean descending) {
+            int[] offsets = new int[distinctCount + 1];
+            for (int row : rowIds) offsets[rankOf(row, descending) + 1]++;
+            for (int i = 1; i < offsets.length; i++) offsets[i] += offsets[i - 1];
+            int[] result = new int[rowIds.length];
+            for (int row : rowIds) result[offsets[rankOf(row, descending)]++] = row;
+            return result;
+        }
+
+        private int rankOf(int row, boolean descending) {
+            return descending ? distinctCount - 1 - ranks[row] : ranks[row];
+        }
+
+        private static void mergeSort(int[] rows, int[] buffer, int from, int to, StoreColumn column) {
+            if (to - from < 2) return;
+            int middle = (from + to) >>> 1;
+            mergeSort(rows, buffer, from, middle, column);
+            mergeSort(rows, buffer, middle, to, column);
+            if (column.compare(rows[middle - 1], rows[middle]) <= 0) return;
+            System.arraycopy(rows, from, buffer, from, to - from);
+            int left = from;
+            int right = middle;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < middle && column.compare(buffer[left], buffer[right]) <= 0)) {
+                    rows[i] = buffer[left++];
+                } else {
+                    rows[i] = buffer[right++];
+                }
+            }
+        }
+    }
+}
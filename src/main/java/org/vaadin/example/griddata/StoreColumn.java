@@ -0,0 +1,27 @@
+package org.vaadin.example.griddata;
+
+
+/**
+ * Column of {@link ColumnarRowStore}. Values are addressed by row index.
+ */
+public interface StoreColumn {
+
+    int size();
+
+    boolean isNull(int row);
+
+    /**
+     * Boxed value, null for null. Used to materialize rows, not for sorting or filtering.
+     */
+    Object getValue(int row);
+
+    /**
+     * Value as text for "starts with" filters, null for null
+     */
+    String getText(int row);
+
+    /**
+     * Compare values of two rows, nulls first
+     */
+    int compare(int row1, int row2);
+}
@@ -0,0 +1,84 @@
+package org.vaadin.example.griddata;
+
+import com.vaadin.flow.function.ValueProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Dictionary-encoded column of strings: each row keeps int code of distinct value, -1 for null.
+ * Rank of every distinct value in sort order is computed once, so rows are compared by ints.
+ */
+public final class StringColumn implements StoreColumn {
+
+    private static final int NULL_CODE = -1;
+
+    private final int[] codes;
+    private final String[] dictionary;
+    // Position of dictionary value in sorted dictionary. Array index - code
+    private final int[] ranks;
+
+
+    private StringColumn(int[] codes, String[] dictionary) {
+        this.codes = codes;
+        this.dictionary = dictionary;
+        Integer[] order = new Integer[dictionary.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (o1, o2) -> dictionary[o1].compareTo(dictionary[o2]));
+        ranks = new int[dictionary.length];
+        for (int i = 0; i < order.length; i++) ranks[order[i]] = i;
+    }
+
+
+    public static <T> StringColumn of(List<T> rows, ValueProvider<T, String> valueProvider) {
+        int[] codes = new int[rows.size()];
+        Map<String, Integer> codesByValue = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        for (int i = 0; i < codes.length; i++) {
+            String value = valueProvider.apply(rows.get(i));
+            if (value == null) {
+                codes[i] = NULL_CODE;
+            } else {
+                codes[i] = codesByValue.computeIfAbsent(value, v -> {
+                    dictionary.add(v);
+                    return dictionary.size() - 1;
+                });
+            }
+        }
+        return new StringColumn(codes, dictionary.toArray(new String[0]));
+    }
+
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return codes[row] == NULL_CODE;
+    }
+
+    @Override
+    public String getValue(int row) {
+        int code = codes[row];
+        return code == NULL_CODE ? null : dictionary[code];
+    }
+
+    @Override
+    public String getText(int row) {
+        return getValue(row);
+    }
+
+    @Override
+    public int compare(int row1, int row2) {
+        int code1 = codes[row1];
+        int code2 = codes[row2];
+        if (code1 == NULL_CODE || code2 == NULL_CODE) return Boolean.compare(code2 == NULL_CODE, code1 == NULL_CODE);
+        return Integer.compare(ranks[code1], ranks[code2]);
+    }
+}
@@ -0,0 +1,98 @@
+package org.vaadin.example.gridfilter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+
+/**
+ * Bounded cache of recent "starts with" filter results (ids of matching rows) for type-ahead filtering.
+ * When user extends a prefix ("Ja" => "Jav") or adds a filter, result is narrower than cached one,
+ * so only rows of cached result are filtered, not all rows. Shortened prefix falls back to cached result
+ * of the same filters or to full scan. Cache must be invalidated when data is changed.
+ */
+public class FilterResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 8;
+    // Bound of row ids kept in all entries together, 16 MB
+    public static final int DEFAULT_MAX_ROW_IDS = 4_000_000;
+
+    private final int maxEntries;
+    private final int maxRowIds;
+    // Map FILTERS (FILTER KEY => case-folded prefix) => ids of matching rows, in access order
+    private final LinkedHashMap<Map<String, String>, int[]> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedRowIds = 0;
+
+
+    public FilterResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_ROW_IDS);
+    }
+
+    public FilterResultCache(int maxEntries, int maxRowIds) {
+        this.maxEntries = maxEntries;
+        this.maxRowIds = maxRowIds;
+    }
+
+
+    /**
+     * Ids of rows matching filters
+     *
+     * @param filters    - active filters, FILTER KEY => prefix
+     * @param filterRows - filters candidate rows (ids in data order) by all filters, all rows if candidates are null
+     */
+    public synchronized int[] getRows(Map<String, String> filters, Function<int[], int[]> filterRows) {
+        Map<String, String> foldedFilters = new HashMap<>();
+        filters.forEach((filterKey, prefix) -> foldedFilters.put(filterKey, PrefixIndex.fold(prefix)));
+        int[] rowIds = results.get(foldedFilters);
+        if (rowIds != null) return rowIds;
+        rowIds = filterRows.apply(findNarrowestBase(foldedFilters));
+        put(foldedFilters, rowIds);
+        return rowIds;
+    }
+
+
+    /**
+     * Data is changed, cached results are not valid
+     */
+    public synchronized void invalidate() {
+        results.clear();
+        cachedRowIds = 0;
+    }
+
+
+    /**
+     * Smallest cached result of filters, that are less specific than given ones: each cached filter is present
+     * with extended prefix. Null if there is no such result.
+     */
+    private int[] findNarrowestBase(Map<String, String> foldedFilters) {
+        int[] base = null;
+        for (Map.Entry<Map<String, String>, int[]> entry : results.entrySet()) {
+            if ((base == null || entry.getValue().length < base.length) && isNarrowing(entry.getKey(), foldedFilters)) {
+                base = entry.getValue();
+            }
+        }
+        return base;
+    }
+
+    private static boolean isNarrowing(Map<String, String> cachedFilters, Map<String, String> foldedFilters) {
+        for (Map.Entry<String, String> cachedFilter : cachedFilters.entrySet()) {
+            String prefix = foldedFilters.get(cachedFilter.getKey());
+            if (prefix == null || !prefix.startsWith(cachedFilter.getValue())) return false;
+        }
+        return true;
+    }
+
+
+    private void put(Map<String, String> foldedFilters, int[] rowIds) {
+        if (rowIds.length > maxRowIds) return;
+        results.put(foldedFilters, rowIds);
+        cachedRowIds += rowIds.length;
+        Iterator<int[]> eldest = results.values().iterator();
+        while (results.size() > maxEntries || cachedRowIds > maxRowIds) {
+            cachedRowIds -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.vaadin.example.gridfilter;
+
+import com.vaadin.flow.function.ValueProvider;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Header "starts with" filters over in-memory grid data.
+ * Each filtered column gets a {@link PrefixIndex} (built on first use), so a filter resolves to row ids
+ * by binary search. Active filters are conditions of one {@link RowFilterPipeline} (most selective first,
+ * in parallel for large data), its result is array of ids of matching rows, which grid pages through.
+ */
+public class PrefixFilters<T> {
+
+    private final List<T> rows;
+    // Filtered columns. Map FILTER KEY => value provider
+    private final Map<String, ValueProvider<T, ?>> valueProviders = new HashMap<>();
+    private final Map<String, PrefixIndex<T>> indexes = new HashMap<>();
+    // Active filters. Map FILTER KEY => prefix
+    private final Map<String, String> activePrefixes = new LinkedHashMap<>();
+
+
+    public PrefixFilters(List<T> rows) {
+        this.rows = rows;
+    }
+
+
+    public void addColumn(String filterKey, ValueProvider<T, ?> valueProvider) {
+        valueProviders.put(filterKey, valueProvider);
+    }
+
+
+    /**
+     * Set filter value, blank value removes filter
+     */
+    public void setPrefix(String filterKey, String prefix) {
+        if (StringUtils.isNotBlank(prefix)) {
+            activePrefixes.put(filterKey, prefix);
+        } else {
+            activePrefixes.remove(filterKey);
+        }
+    }
+
+
+    /**
+     * Ids of rows (positions in data list) passing all active filters, in data order; null if there are no active filters
+     */
+    public int[] getMatchingRowIds() {
+        if (activePrefixes.isEmpty()) return null;
+        RowFilterPipeline pipeline = new RowFilterPipeline(rows.size());
+        activePrefixes.forEach((filterKey, prefix) -> pipeline.add(getIndex(filterKey).rowsWithPrefix(prefix)::get));
+        return pipeline.filter();
+    }
+
+
+    /**
+     * Data list is changed, indexes must be rebuilt
+     */
+    public void invalidate() {
+        indexes.clear();
+    }
+
+
+    private PrefixIndex<T> getIndex(String filterKey) {
+        return indexes.computeIfAbsent(filterKey, key -> new PrefixIndex<>(rows, valueProviders.get(key)));
+    }
+}
@@ -0,0 +1,94 @@
+package org.vaadin.example.gridfilter;
+
+import com.vaadin.flow.function.ValueProvider;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Sorted index of case-folded column values, built once over grid data.
+ * Rows with values starting with a prefix are a contiguous range of the index, found by binary search.
+ */
+public class PrefixIndex<T> {
+
+    private final int rowCount;
+    // Case-folded values in sorted order, and row ids (positions in data list) for them
+    private final String[] sortedValues;
+    private final int[] rowIds;
+
+
+    public PrefixIndex(List<T> rows, ValueProvider<T, ?> valueProvider) {
+        rowCount = rows.size();
+        String[] values = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            Object value = valueProvider.apply(rows.get(i));
+            values[i] = fold(value == null ? "" : Objects.toString(value));
+        }
+        Integer[] order = new Integer[rowCount];
+        for (int i = 0; i < rowCount; i++) order[i] = i;
+        Arrays.sort(order, (o1, o2) -> values[o1].compareTo(values[o2]));
+        sortedValues = new String[rowCount];
+        rowIds = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            sortedValues[i] = values[order[i]];
+            rowIds[i] = order[i];
+        }
+    }
+
+
+    /**
+     * Ids of rows, which values start with prefix (case insensitive)
+     */
+    public BitSet rowsWithPrefix(String prefix) {
+        String foldedPrefix = fold(prefix);
+        int from = firstNotBefore(foldedPrefix);
+        int to = firstAfterPrefix(foldedPrefix, from);
+        BitSet rows = new BitSet(rowCount);
+        for (int i = from; i < to; i++) rows.set(rowIds[i]);
+        return rows;
+    }
+
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+
+    private int firstNotBefore(String foldedPrefix) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle].compareTo(foldedPrefix) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    // Values with the same prefix are contiguous, all values after them are greater
+    private int firstAfterPrefix(String foldedPrefix, int from) {
+        int low = from;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle].startsWith(foldedPrefix)) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+
+    /**
+     * Case folding char by char, the same way as {@link String#regionMatches(boolean, int, String, int, int)} ignores case
+     */
+    static String fold(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,131 @@
+package org.vaadin.example.gridfilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+
+/**
+ * Filter of rows by row id (position in data), compiled from several conditions into one predicate.
+ * Conditions are ordered by selectivity, measured on a sample of rows, so most rows are rejected by the first condition.
+ * Large data is filtered in parallel by fork-join over row chunks. Result is array of ids of matching rows, in data order.
+ * Conditions are called from several threads, so they must only read data.
+ * Pipeline can filter only some candidate rows (for example result of less specific filters).
+ */
+public class RowFilterPipeline {
+
+    // Row count, from which rows are filtered in parallel
+    public static final int PARALLEL_THRESHOLD = 100_000;
+    // Rows filtered by one fork-join task
+    private static final int CHUNK_SIZE = 16_384;
+    // Rows tested for estimating selectivity of conditions
+    private static final int SAMPLE_SIZE = 256;
+
+    // Count of filtered rows: all rows or candidate rows
+    private final int rowCount;
+    // Ids of candidate rows, null if all rows are filtered
+    private final int[] candidateRowIds;
+    private final List<IntPredicate> conditions = new ArrayList<>();
+
+
+    /**
+     * Filter all rows
+     */
+    public RowFilterPipeline(int rowCount) {
+        this.rowCount = rowCount;
+        candidateRowIds = null;
+    }
+
+    /**
+     * Filter only candidate rows, ids must be in data order
+     */
+    public RowFilterPipeline(int[] candidateRowIds) {
+        this.rowCount = candidateRowIds.length;
+        this.candidateRowIds = candidateRowIds;
+    }
+
+
+    public RowFilterPipeline add(IntPredicate condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+
+    /**
+     * Ids of rows that pass all conditions
+     */
+    public int[] filter() {
+        if (conditions.isEmpty()) return candidateRowIds != null ? candidateRowIds.clone() : IntStream.range(0, rowCount).toArray();
+        IntPredicate filter = compile(orderBySelectivity());
+        if (rowCount < PARALLEL_THRESHOLD) return filterRange(filter, 0, rowCount);
+        int[][] chunkRowIds = new int[(rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        IntStream.range(0, chunkRowIds.length).parallel().forEach(chunk -> chunkRowIds[chunk] =
+                filterRange(filter, chunk * CHUNK_SIZE, Math.min(rowCount, (chunk + 1) * CHUNK_SIZE)));
+        int count = 0;
+        for (int[] rowIds : chunkRowIds) count += rowIds.length;
+        int[] rowIds = new int[count];
+        int position = 0;
+        for (int[] chunk : chunkRowIds) {
+            System.arraycopy(chunk, 0, rowIds, position, chunk.length);
+            position += chunk.length;
+        }
+        return rowIds;
+    }
+
+
+    /**
+     * Conditions, that passed less sample rows, go first
+     */
+    private List<IntPredicate> orderBySelectivity() {
+        if (conditions.size() < 2) return conditions;
+        int step = Math.max(1, rowCount / SAMPLE_SIZE);
+        int[] passedCounts = new int[conditions.size()];
+        for (int i = 0; i < conditions.size(); i++) {
+            IntPredicate condition = conditions.get(i);
+            for (int position = 0; position < rowCount; position += step) {
+                if (condition.test(getRowId(position))) passedCounts[i]++;
+            }
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < conditions.size(); i++) order.add(i);
+        order.sort(Comparator.comparingInt(i -> passedCounts[i]));
+        List<IntPredicate> ordered = new ArrayList<>(conditions.size());
+        order.forEach(i -> ordered.add(conditions.get(i)));
+        return ordered;
+    }
+
+
+    private static IntPredicate compile(List<IntPredicate> orderedConditions) {
+        if (orderedConditions.size() == 1) return orderedConditions.get(0);
+        if (orderedConditions.size() == 2) {
+            IntPredicate first = orderedConditions.get(0);
+            IntPredicate second = orderedConditions.get(1);
+            return row -> first.test(row) && second.test(row);
+        }
+        IntPredicate[] array = orderedConditions.toArray(new IntPredicate[0]);
+        return row -> {
+            for (IntPredicate condition : array) {
+                if (!condition.test(row)) return false;
+            }
+            return true;
+        };
+    }
+
+
+    private int[] filterRange(IntPredicate filter, int from, int to) {
+        int[] rowIds = new int[to - from];
+        int count = 0;
+        for (int position = from; position < to; position++) {
+            int row = getRowId(position);
+            if (filter.test(row)) rowIds[count++] = row;
+        }
+        return count == rowIds.length ? rowIds : Arrays.copyOf(rowIds, count);
+    }
+
+    private int getRowId(int position) {
+        return candidateRowIds == null ? position : candidateRowIds[position];
+    }
+}
@@ -0,0 +1,100 @@
+package org.vaadin.example.gridmetrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.function.ToDoubleFunction;
+
+
+/**
+ * Meters of grid columns managers and grid settings. Meters are tagged by grid id, not by settings name:
+ * settings names include user ids, and meter per user would make unbounded count of meters (with histograms).
+ * Settings meters of several grids at once (write batch, write queue, cache) are not tagged. Meters are registered in Micrometer global registry: columns managers are not Spring beans,
+ * and Spring Boot adds its registry to the global one, so meters are exposed through Actuator.
+ */
+public final class GridMetrics {
+
+    public static final String TAG_GRID = "grid";
+
+    // Columns manager
+    public static final String MANAGER_INITIALIZE = "grid.manager.initialize";
+    public static final String MANAGER_REFRESH_COLUMNS = "grid.manager.refresh.columns";
+    public static final String MANAGER_SAVE_COLUMNS = "grid.manager.save.columns";
+    public static final String MANAGER_COLUMN_REORDER = "grid.manager.column.reorder";
+    public static final String MANAGER_COLUMN_RESIZE = "grid.manager.column.resize";
+    public static final String MANAGER_MENU_REBUILD = "grid.manager.menu.rebuild";
+    // Grid settings store
+    public static final String SETTINGS_READ = "grid.settings.read";
+    public static final String SETTINGS_WRITE_BATCH = "grid.settings.write.batch";
+    public static final String SETTINGS_WRITTEN = "grid.settings.written";
+    public static final String SETTINGS_WRITE_QUEUE = "grid.settings.write.queue";
+    public static final String SETTINGS_WRITE_COALESCED = "grid.settings.write.coalesced";
+    public static final String SETTINGS_WRITE_FAILED = "grid.settings.write.failed";
+    public static final String SETTINGS_CACHE_HITS = "grid.settings.cache.hits";
+    public static final String SETTINGS_CACHE_MISSES = "grid.settings.cache.misses";
+    public static final String SETTINGS_CACHE_EVICTIONS = "grid.settings.cache.evictions";
+
+    private GridMetrics() {
+    }
+
+
+    /**
+     * Timer of grid
+     *
+     * @param gridId - grid id, the same for all users
+     */
+    public static Timer timer(String name, String gridId) {
+        return Timer.builder(name)
+                .tag(TAG_GRID, gridId)
+                .register(Metrics.globalRegistry);
+    }
+
+
+    /**
+     * Counter of grid
+     *
+     * @param gridId - grid id, the same for all users
+     */
+    public static Counter counter(String name, String gridId) {
+        return Counter.builder(name)
+                .tag(TAG_GRID, gridId)
+                .register(Metrics.globalRegistry);
+    }
+
+
+    /**
+     * Grid id of settings name built by columns manager: "version prefix_grid id_user ids..."
+     */
+    public static String gridIdOf(String settingsName) {
+        int start = settingsName.indexOf('_') + 1;
+        int end = settingsName.indexOf('_', start);
+        return end < 0 ? settingsName.substring(start) : settingsName.substring(start, end);
+    }
+
+
+    /**
+     * Timer of operations that are not related to one grid
+     */
+    public static Timer timer(String name) {
+        return Timer.builder(name).register(Metrics.globalRegistry);
+    }
+
+
+    /**
+     * Gauge of current value, object is referenced weakly by registry
+     */
+    public static <T> Gauge gauge(String name, T object, ToDoubleFunction<T> valueFunction) {
+        return Gauge.builder(name, object, valueFunction).register(Metrics.globalRegistry);
+    }
+
+
+    /**
+     * Counter over count kept by object
+     */
+    public static <T> FunctionCounter functionCounter(String name, T object, ToDoubleFunction<T> countFunction) {
+        return FunctionCounter.builder(name, object, countFunction).register(Metrics.globalRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+
+/**
+ * Saved parameters of one grid column
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ColumnSettings {
+    private final String key;
+    private final boolean visible;
+    // Null if column was never shown and its width is unknown
+    private final String width;
+}
@@ -0,0 +1,154 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+
+/**
+ * Layout change notifier over directory shared by all nodes (network folder).
+ * Every published batch is one small event file "time-node-sequence.evt" with changed settings names, one per line.
+ * Nodes poll the directory and handle event files they haven't seen yet; files older than retention time are deleted.
+ * Stand-in for message broker: one event file per store write batch, no layout data is transferred.
+ */
+@Slf4j
+public class DirectoryGridLayoutChangeNotifier implements GridLayoutChangeNotifier {
+
+    private static final String EVENT_SUFFIX = ".evt";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path eventsFolder;
+    private final long retentionMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    // Names of event files that are already handled (or existed on start)
+    private final Set<String> seenEvents = new HashSet<>();
+    private final ScheduledExecutorService executor;
+
+
+    /**
+     * Constructor
+     *
+     * @param eventsFolder       - directory shared by all nodes
+     * @param pollIntervalMillis - how often directory is checked for new events
+     * @param retentionMillis    - how long event files are kept, must be much longer than poll interval
+     */
+    public DirectoryGridLayoutChangeNotifier(Path eventsFolder, long pollIntervalMillis, long retentionMillis) throws IOException {
+        this.eventsFolder = eventsFolder;
+        this.retentionMillis = retentionMillis;
+        Files.createDirectories(eventsFolder);
+        // Events published before start don't matter, cache of this node is empty
+        listEvents().forEach(seenEvents::add);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grid-settings-change-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+
+    @Override
+    public void publish(Collection<String> settingsNames) throws IOException {
+        if (settingsNames.isEmpty()) return;
+        String eventName = String.format("%019d-%s-%d", System.currentTimeMillis(), nodeId, sequence.incrementAndGet());
+        Path tempFile = eventsFolder.resolve(eventName + TEMP_SUFFIX);
+        Path eventFile = eventsFolder.resolve(eventName + EVENT_SUFFIX);
+        try {
+            Files.write(tempFile, String.join("\n", settingsNames).getBytes(StandardCharsets.UTF_8));
+            // Other nodes must never read half-written event
+            try {
+                Files.move(tempFile, eventFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, eventFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+
+    private void poll() {
+        try {
+            Set<String> currentEvents = new HashSet<>();
+            long expiredBefore = System.currentTimeMillis() - retentionMillis;
+            for (String eventFileName : listEvents()) {
+                currentEvents.add(eventFileName);
+                if (seenEvents.add(eventFileName) && !eventFileName.contains(nodeId)) {
+                    handleEvent(eventFileName);
+                }
+                if (getEventTime(eventFileName) < expiredBefore) {
+                    // Any node can delete expired event, file can be already deleted by other node
+                    Files.deleteIfExists(eventsFolder.resolve(eventFileName));
+                }
+            }
+            seenEvents.retainAll(currentEvents);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while polling grid settings change events. Folder={}", eventsFolder, e);
+        }
+    }
+
+
+    private void handleEvent(String eventFileName) throws IOException {
+        List<String> settingsNames;
+        try {
+            settingsNames = Files.readAllLines(eventsFolder.resolve(eventFileName), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            // Expired and deleted by other node
+            return;
+        }
+        settingsNames.stream()
+                .filter(settingsName -> !settingsName.isEmpty())
+                .forEach(settingsName -> listeners.forEach(listener -> listener.accept(settingsName)));
+    }
+
+
+    private Set<String> listEvents() throws IOException {
+        Set<String> eventFileNames = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(eventsFolder, "*" + EVENT_SUFFIX)) {
+            stream.forEach(path -> eventFileNames.add(path.getFileName().toString()));
+        }
+        return eventFileNames;
+    }
+
+
+    private static long getEventTime(String eventFileName) {
+        try {
+            return Long.parseLong(eventFileName.substring(0, eventFileName.indexOf('-')));
+        } catch (RuntimeException e) {
+            // Not our file, never expires
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Settings store with one file per grid layout in sharded settings folder: file of layout is in
+ * "x/y" subfolder, where x and y are hex digits of layout name hash, so no folder holds too many files.
+ * Fan-out is 16 x 16 = 256 leaf folders: 100 000 layouts make about 400 files per folder,
+ * and folder watcher needs less than 300 watches.
+ * Index file in settings folder lists all layouts. Flat folder of previous versions is migrated on start.
+ * Files of legacy text format are rewritten in current format on first load.
+ * Files are written through temporary file and rename, so a settings file is never seen half-written.
+ * Checksums of files read and written by this store are kept, to tell external modifications from own writes.
+ * <p>
+ * Layout file is a snapshot; later saves append only the change to journal file next to it (see {@link GridLayoutJournal}),
+ * so saving costs the size of the change. Journal is compacted into new snapshot after {@value #COMPACTION_RECORD_COUNT} changes.
+ * First save of a layout by this store, or save after the files were changed outside, writes snapshot.
+ */
+@Slf4j
+public class FileGridSettingsStore implements GridSettingsStore {
+
+    public static final String TEMP_FILE_SUFFIX = ".tmp";
+    public static final String INDEX_FILE_NAME = ".index";
+    public static final String JOURNAL_FILE_SUFFIX = ".journal";
+    // Changes appended to journal before it is compacted into snapshot
+    public static final int COMPACTION_RECORD_COUNT = 64;
+    // Layouts, which journal states are kept
+    private static final int MAX_JOURNAL_STATES = 10_000;
+    // Levels of shard folders, bits of layout name hash per level
+    static final int SHARD_LEVELS = 2;
+    private static final int SHARD_LEVEL_BITS = 4;
+    private static final int SHARD_LEVEL_MASK = (1 << SHARD_LEVEL_BITS) - 1;
+
+    private final Path settingsFolder;
+    private final SettingsFolderIndex index;
+    // Checksums of files as this store has last read or written them. Map SETTINGS NAME => CRC32
+    private final Map<String, Long> knownChecksums = new ConcurrentHashMap<>();
+    // Journal lengths as this store has last read or written them. Map SETTINGS NAME => length
+    private final Map<String, Long> knownJournalLengths = new ConcurrentHashMap<>();
+    // Layouts saved by this store with their files state, changes are appended to journal only on top of them
+    private final Map<String, JournalState> journalStates = Collections.synchronizedMap(
+            new LinkedHashMap<String, JournalState>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, JournalState> eldest) {
+                    return size() > MAX_JOURNAL_STATES;
+                }
+            });
+
+    public FileGridSettingsStore(Path settingsFolder) {
+        this.settingsFolder = settingsFolder;
+        // Создание папки для хранения настроек
+        if (!Files.exists(settingsFolder)) {
+            try {
+                Files.createDirectories(settingsFolder);
+            } catch (IOException e) {
+                log.error("Error while creating grids settings folder.", e);
+            }
+        }
+        index = openIndex();
+        migrateFlatLayout();
+    }
+
+
+    /**
+     * Index is rebuilt from shard folders, if it is lost or malformed
+     */
+    private SettingsFolderIndex openIndex() {
+        SettingsFolderIndex folderIndex = new SettingsFolderIndex(settingsFolder.resolve(INDEX_FILE_NAME));
+        if (folderIndex.exists()) {
+            try {
+                folderIndex.load();
+                return folderIndex;
+            } catch (IOException e) {
+                log.warn("Error while reading grid settings index, it is rebuilt from settings folder.", e);
+            }
+        }
+        try {
+            folderIndex.rebuild(scanShards());
+        } catch (IOException e) {
+            log.error("Error while rebuilding grid settings index.", e);
+        }
+        return folderIndex;
+    }
+
+
+    /**
+     * Layouts found in shard folders. Map SETTINGS NAME => shard
+     */
+    private Map<String, Integer> scanShards() throws IOException {
+        Map<String, Integer> layoutShards = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(settingsFolder, SHARD_LEVELS + 1)) {
+            paths.filter(path -> settingsFolder.relativize(path).getNameCount() == SHARD_LEVELS + 1)
+                    .filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .filter(fileName -> !fileName.endsWith(TEMP_FILE_SUFFIX) && !fileName.endsWith(JOURNAL_FILE_SUFFIX))
+                    .forEach(settingsName -> layoutShards.put(settingsName, getShard(settingsName)));
+        }
+        return layoutShards;
+    }
+
+
+    /**
+     * One-time migration of flat settings folder (all files in one folder) to sharded layout
+     */
+    private void migrateFlatLayout() {
+        int migratedCount = 0;
+        try (DirectoryStream<Path> flatFiles = Files.newDirectoryStream(settingsFolder, Files::isRegularFile)) {
+            for (Path flatFile : flatFiles) {
+                String settingsName = flatFile.getFileName().toString();
+                if (settingsName.equals(INDEX_FILE_NAME)) continue;
+                if (settingsName.endsWith(TEMP_FILE_SUFFIX)) {
+                    // Left by interrupted write
+                    Files.deleteIfExists(flatFile);
+                    continue;
+                }
+                Path target = getPath(settingsName);
+                Files.createDirectories(target.getParent());
+                if (Files.exists(target)) {
+                    // Sharded file is newer
+                    Files.delete(flatFile);
+                } else {
+                    Files.move(flatFile, target);
+                }
+                index.add(settingsName, getShard(settingsName));
+                migratedCount++;
+            }
+        } catch (IOException e) {
+            log.error("Error while migrating grid settings folder to sharded layout. Migrated files count={}", migratedCount, e);
+            return;
+        }
+        if (migratedCount > 0) log.info("Grid settings folder migrated to sharded layout. Files count={}", migratedCount);
+    }
+
+
+    @Override
+    public Optional<GridLayout> load(String settingsName) throws IOException {
+        byte[] bytes;
+        GridLayout layout;
+        // Files are read under lock of saving, so recorded files state is never older than state recorded by saving
+        synchronized (this) {
+            try {
+                bytes = Files.readAllBytes(getPath(settingsName));
+            } catch (NoSuchFileException e) {
+                return Optional.empty();
+            }
+            long snapshotChecksum = checksum(bytes);
+            layout = applyJournal(settingsName, GridLayoutCodec.decode(bytes), snapshotChecksum);
+            knownChecksums.put(settingsName, snapshotChecksum);
+        }
+        if (GridLayoutCodec.isLegacyFormat(bytes)) {
+            // Rewrite settings file of previous manager version in current format
+            try {
+                save(settingsName, layout);
+                log.info("Grid settings file migrated to format version {}. Setting file name={}", GridLayoutCodec.FORMAT_VERSION, settingsName);
+            } catch (IOException e) {
+                log.warn("Error while migrating grid settings file. Setting file name={}", settingsName, e);
+            }
+        }
+        return Optional.of(layout);
+    }
+
+
+    private GridLayout applyJournal(String settingsName, GridLayout snapshot, long snapshotChecksum) throws IOException {
+        byte[] journal;
+        try {
+            journal = Files.readAllBytes(getJournalPath(settingsName));
+        } catch (NoSuchFileException e) {
+            knownJournalLengths.put(settingsName, 0L);
+            return snapshot;
+        }
+        knownJournalLengths.put(settingsName, (long) journal.length);
+        GridLayout layout = snapshot;
+        for (GridLayoutDelta delta : GridLayoutJournal.read(journal, snapshotChecksum)) {
+            layout = delta.applyTo(layout);
+        }
+        return layout;
+    }
+
+
+    /**
+     * Layouts are saved by settings writer thread, but legacy files are rewritten on load by request thread,
+     * so saving is serialized: journal, index and journal states are changed by one thread at a time
+     */
+    @Override
+    public synchronized void save(String settingsName, GridLayout layout) throws IOException {
+        JournalState state = journalStates.get(settingsName);
+        if (state != null && state.getRecordCount() < COMPACTION_RECORD_COUNT && isUnchanged(settingsName, state)) {
+            GridLayoutDelta delta = GridLayoutDelta.between(state.getLayout(), layout);
+            if (delta.isEmpty()) return;
+            appendJournal(settingsName, state, layout, delta);
+        } else {
+            writeSnapshot(settingsName, layout);
+        }
+    }
+
+
+    private void appendJournal(String settingsName, JournalState state, GridLayout layout, GridLayoutDelta delta) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (state.getJournalLength() == 0) bytes.write(GridLayoutJournal.encodeHeader(state.getSnapshotChecksum()));
+        bytes.write(GridLayoutJournal.encodeRecord(delta));
+        long journalLength = state.getJournalLength() + bytes.size();
+        try {
+            Files.write(getJournalPath(settingsName), bytes.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // Journal state is unknown now, next save writes snapshot
+            journalStates.remove(settingsName);
+            throw e;
+        }
+        knownJournalLengths.put(settingsName, journalLength);
+        journalStates.put(settingsName, new JournalState(layout, state.getSnapshotModified(), state.getSnapshotChecksum(),
+                journalLength, state.getRecordCount() + 1));
+    }
+
+
+    /**
+     * Write snapshot and drop journal. Journal left by crash after renaming of snapshot is ignored,
+     * as it is made for other snapshot checksum.
+     */
+    private void writeSnapshot(String settingsName, GridLayout layout) throws IOException {
+        journalStates.remove(settingsName);
+        Path target = getPath(settingsName);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), settingsName, TEMP_FILE_SUFFIX);
+        long snapshotChecksum;
+        try {
+            byte[] bytes = GridLayoutCodec.encode(layout);
+            Files.write(temp, bytes);
+            snapshotChecksum = checksum(bytes);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        knownChecksums.put(settingsName, snapshotChecksum);
+        Files.deleteIfExists(getJournalPath(settingsName));
+        knownJournalLengths.put(settingsName, 0L);
+        index.add(settingsName, getShard(settingsName));
+        journalStates.put(settingsName, new JournalState(layout, Files.getLastModifiedTime(target), snapshotChecksum, 0, 0));
+    }
+
+
+    /**
+     * Files of layout are as this store has left them: snapshot is not rewritten and journal has expected length
+     */
+    private boolean isUnchanged(String settingsName, JournalState state) {
+        try {
+            return Files.getLastModifiedTime(getPath(settingsName)).equals(state.getSnapshotModified())
+                    && getJournalLength(settingsName) == state.getJournalLength();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private long getJournalLength(String settingsName) throws IOException {
+        try {
+            return Files.size(getJournalPath(settingsName));
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+
+    /**
+     * Is settings file changed not by this store (edited by operator, restored from backup)
+     * since it was last read or written here.
+     * Files state is recorded when writing is finished, and it is checked under the same lock,
+     * so a save in progress is never taken for external change.
+     */
+    public synchronized boolean isExternallyModified(String settingsName) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(getPath(settingsName));
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        Long knownChecksum = knownChecksums.get(settingsName);
+        if (knownChecksum == null || knownChecksum != checksum(bytes)) return true;
+        return getJournalLength(settingsName) != knownJournalLengths.getOrDefault(settingsName, 0L);
+    }
+
+
+    /**
+     * Load layout if its files are changed outside, empty otherwise.
+     * Checking and loading are done under one lock, so layout saved in between is never taken for external change.
+     */
+    public synchronized Optional<GridLayout> loadIfExternallyModified(String settingsName) throws IOException {
+        return isExternallyModified(settingsName) ? load(settingsName) : Optional.empty();
+    }
+
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+
+    /**
+     * Names are taken from index, folders are not walked
+     */
+    @Override
+    public List<String> getSettingsNames(String prefix) {
+        return index.getNames().stream()
+                .filter(settingsName -> settingsName.startsWith(prefix))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * File modification times are read one by one, only limit newest layouts are kept while reading.
+     * Listing is stopped by interrupting the calling thread (time budget of caller is over).
+     */
+    @Override
+    public List<String> getRecentSettingsNames(int limit) throws IOException {
+        if (limit <= 0) return Collections.emptyList();
+        // Oldest of kept layouts is on top
+        PriorityQueue<Map.Entry<String, Long>> recent = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (String settingsName : index.getNames()) {
+            if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Listing of recent grid settings is interrupted");
+            long modifiedMillis = getModifiedMillis(settingsName);
+            if (modifiedMillis < 0) continue;
+            if (recent.size() < limit) {
+                recent.add(new AbstractMap.SimpleImmutableEntry<>(settingsName, modifiedMillis));
+            } else if (recent.peek().getValue() < modifiedMillis) {
+                recent.poll();
+                recent.add(new AbstractMap.SimpleImmutableEntry<>(settingsName, modifiedMillis));
+            }
+        }
+        return recent.stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private long getModifiedMillis(String settingsName) {
+        long modifiedMillis;
+        try {
+            modifiedMillis = Files.getLastModifiedTime(getPath(settingsName)).toMillis();
+        } catch (IOException e) {
+            // Deleted by hand
+            return -1;
+        }
+        try {
+            // Changes after snapshot are in journal
+            return Math.max(modifiedMillis, Files.getLastModifiedTime(getJournalPath(settingsName)).toMillis());
+        } catch (IOException e) {
+            return modifiedMillis;
+        }
+    }
+
+
+    public Path getSettingsFolder() {
+        return settingsFolder;
+    }
+
+    private Path getPath(String settingsName) {
+        int shard = getShard(settingsName);
+        return settingsFolder
+                .resolve(Integer.toHexString(shard >>> SHARD_LEVEL_BITS))
+                .resolve(Integer.toHexString(shard & SHARD_LEVEL_MASK))
+                .resolve(settingsName);
+    }
+
+    private Path getJournalPath(String settingsName) {
+        Path path = getPath(settingsName);
+        return path.resolveSibling(path.getFileName() + JOURNAL_FILE_SUFFIX);
+    }
+
+    /**
+     * Bits of layout name hash for both shard folder levels
+     */
+    private static int getShard(String settingsName) {
+        CRC32 crc = new CRC32();
+        byte[] bytes = settingsName.getBytes(StandardCharsets.UTF_8);
+        crc.update(bytes, 0, bytes.length);
+        return (int) (crc.getValue() & ((1 << SHARD_LEVELS * SHARD_LEVEL_BITS) - 1));
+    }
+
+
+    /**
+     * Layout as it is in files (snapshot and journal) and state of files after last save
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class JournalState {
+        private final GridLayout layout;
+        private final FileTime snapshotModified;
+        private final long snapshotChecksum;
+        private final long journalLength;
+        private final int recordCount;
+    }
+}
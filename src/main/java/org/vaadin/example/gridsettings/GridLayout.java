@@ -0,0 +1,25 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Saved grid layout: columns in display order with their visibility and width
+ */
+@EqualsAndHashCode
+public class GridLayout {
+
+    private final List<ColumnSettings> columns;
+
+    public GridLayout(List<ColumnSettings> columns) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+    }
+
+    public List<ColumnSettings> getColumns() {
+        return columns;
+    }
+}
@@ -0,0 +1,167 @@
+package org.vaadin.example.gridsettings;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+
+/**
+ * Single-file archive of grid layouts, for backup and bulk provisioning.
+ * Archive is written and read by channels record by record, only one batch of layouts is in memory at once.
+ * <pre>
+ * magic (4 bytes) | format version (1 byte) | records... | end marker (varint 0)
+ * record: name length (varint) | name (UTF-8) | layout length (varint) | layout ({@link GridLayoutCodec} format)
+ * </pre>
+ */
+public final class GridLayoutArchive {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte[] MAGIC = {'G', 'L', 'A', 'R'};
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Longest varint of int
+    private static final int MAX_VARINT_LENGTH = 5;
+
+    /**
+     * Receiver of imported layouts
+     */
+    @FunctionalInterface
+    public interface BatchHandler {
+        void accept(Map<String, GridLayout> layouts) throws IOException;
+    }
+
+    private GridLayoutArchive() {
+    }
+
+
+    /**
+     * Write layouts of store with names starting with prefix
+     *
+     * @return count of written layouts
+     */
+    public static int write(GridSettingsStore store, String prefix, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.put(MAGIC).put((byte) FORMAT_VERSION);
+        int count = 0;
+        List<String> settingsNames = store.getSettingsNames(prefix);
+        for (String settingsName : settingsNames) {
+            Optional<GridLayout> layout = store.load(settingsName);
+            if (!layout.isPresent()) continue;
+            byte[] name = settingsName.getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = GridLayoutCodec.encode(layout.get());
+            buffer = ensureSpace(buffer, channel, 2 * MAX_VARINT_LENGTH + name.length + bytes.length);
+            putVarInt(buffer, name.length);
+            buffer.put(name);
+            putVarInt(buffer, bytes.length);
+            buffer.put(bytes);
+            count++;
+        }
+        buffer = ensureSpace(buffer, channel, MAX_VARINT_LENGTH);
+        putVarInt(buffer, 0);
+        drain(buffer, channel);
+        return count;
+    }
+
+
+    /**
+     * Read layouts with names starting with prefix, they are passed to handler by batches
+     *
+     * @return count of read layouts
+     */
+    public static int read(ReadableByteChannel channel, String prefix, int batchSize, BatchHandler handler) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        buffer = fill(buffer, channel, MAGIC.length + 1);
+        for (byte magicByte : MAGIC) {
+            if (buffer.get() != magicByte) throw new IOException("Not a grid layouts archive");
+        }
+        int version = buffer.get();
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported grid layouts archive version " + version);
+        Map<String, GridLayout> batch = new LinkedHashMap<>();
+        int count = 0;
+        while (true) {
+            buffer = fill(buffer, channel, 1);
+            int nameLength = readVarInt(buffer, channel);
+            if (nameLength == 0) break;
+            if (nameLength < 0) throw new IOException("Grid layouts archive is malformed");
+            buffer = fill(buffer, channel, nameLength);
+            String settingsName = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), nameLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + nameLength);
+            int layoutLength = readVarInt(buffer, channel);
+            if (layoutLength < 0) throw new IOException("Grid layouts archive is malformed");
+            buffer = fill(buffer, channel, layoutLength);
+            if (settingsName.startsWith(prefix)) {
+                byte[] bytes = new byte[layoutLength];
+                buffer.get(bytes);
+                batch.put(settingsName, GridLayoutCodec.decode(bytes));
+                count++;
+                if (batch.size() >= batchSize) {
+                    handler.accept(batch);
+                    batch = new LinkedHashMap<>();
+                }
+            } else {
+                buffer.position(buffer.position() + layoutLength);
+            }
+        }
+        if (!batch.isEmpty()) handler.accept(batch);
+        return count;
+    }
+
+
+    /**
+     * Buffer (in write mode) with at least required free space, written part goes to channel
+     */
+    private static ByteBuffer ensureSpace(ByteBuffer buffer, WritableByteChannel channel, int required) throws IOException {
+        if (buffer.remaining() >= required) return buffer;
+        drain(buffer, channel);
+        buffer.clear();
+        // Record bigger than buffer
+        return buffer.capacity() >= required ? buffer : ByteBuffer.allocate(required);
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+
+    /**
+     * Buffer (in read mode) with at least required bytes, read from channel if needed
+     */
+    private static ByteBuffer fill(ByteBuffer buffer, ReadableByteChannel channel, int required) throws IOException {
+        if (buffer.remaining() >= required) return buffer;
+        ByteBuffer target = buffer.capacity() >= required ? buffer.compact() : ByteBuffer.allocate(required).put(buffer);
+        while (target.position() < required) {
+            if (channel.read(target) < 0) throw new EOFException("Grid layouts archive is truncated");
+        }
+        target.flip();
+        return target;
+    }
+
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer, ReadableByteChannel channel) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!buffer.hasRemaining()) buffer = fill(buffer, channel, 1);
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Grid layouts archive is malformed");
+    }
+}
@@ -0,0 +1,166 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.vaadin.example.gridmetrics.GridMetrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Application wide cache of parsed grid layouts, shared by all sessions.
+ * Bounded by size (least recently used layout is evicted first) and by time since layout was put to cache.
+ * Layouts are immutable, so the same instance is safely given to all readers.
+ * Hits, misses and evictions are counted in {@link GridMetrics}.
+ */
+public class GridLayoutCache {
+
+    private volatile int maxSize;
+    private volatile long timeToLiveNanos;
+    // Map SETTINGS NAME => layout, in access order
+    private final LinkedHashMap<String, CachedLayout> layouts = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Statistics
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+
+    /**
+     * Constructor
+     *
+     * @param maxSize           - max count of cached layouts
+     * @param timeToLiveSeconds - how long layout is kept in cache after loading or saving
+     */
+    public GridLayoutCache(int maxSize, long timeToLiveSeconds) {
+        this.maxSize = maxSize;
+        this.timeToLiveNanos = TimeUnit.SECONDS.toNanos(timeToLiveSeconds);
+        GridMetrics.functionCounter(GridMetrics.SETTINGS_CACHE_HITS, this, GridLayoutCache::getHitCount);
+        GridMetrics.functionCounter(GridMetrics.SETTINGS_CACHE_MISSES, this, GridLayoutCache::getMissCount);
+        GridMetrics.functionCounter(GridMetrics.SETTINGS_CACHE_EVICTIONS, this, GridLayoutCache::getEvictionCount);
+    }
+
+
+    /**
+     * Cached layout, null if it is absent or expired
+     */
+    public GridLayout get(String settingsName) {
+        synchronized (layouts) {
+            CachedLayout cachedLayout = layouts.get(settingsName);
+            if (cachedLayout != null && isExpired(cachedLayout, System.nanoTime())) {
+                layouts.remove(settingsName);
+                evictionCount.incrementAndGet();
+                cachedLayout = null;
+            }
+            if (cachedLayout == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            return cachedLayout.getLayout();
+        }
+    }
+
+
+    public void put(String settingsName, GridLayout layout) {
+        synchronized (layouts) {
+            layouts.put(settingsName, new CachedLayout(layout, System.nanoTime()));
+            evictOverflow();
+        }
+    }
+
+
+    /**
+     * Put layout loaded from store. Layout saved meanwhile is newer, so it is not replaced.
+     */
+    public void putIfAbsent(String settingsName, GridLayout layout) {
+        synchronized (layouts) {
+            CachedLayout cachedLayout = layouts.get(settingsName);
+            if (cachedLayout == null || isExpired(cachedLayout, System.nanoTime())) {
+                put(settingsName, layout);
+            }
+        }
+    }
+
+
+    public void invalidate(String settingsName) {
+        synchronized (layouts) {
+            layouts.remove(settingsName);
+        }
+    }
+
+
+    public void invalidateAll() {
+        synchronized (layouts) {
+            layouts.clear();
+        }
+    }
+
+
+    /**
+     * Change bounds, extra layouts are evicted immediately
+     */
+    public void configure(int maxSize, long timeToLiveSeconds) {
+        synchronized (layouts) {
+            this.maxSize = maxSize;
+            this.timeToLiveNanos = TimeUnit.SECONDS.toNanos(timeToLiveSeconds);
+            evictOverflow();
+        }
+    }
+
+
+    private void evictOverflow() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, CachedLayout>> iterator = layouts.entrySet().iterator();
+        // Iteration starts from least recently used layout
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedLayout> entry = iterator.next();
+            if (layouts.size() > maxSize || isExpired(entry.getValue(), now)) {
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            } else {
+                break;
+            }
+        }
+    }
+
+
+    private boolean isExpired(CachedLayout cachedLayout, long now) {
+        return now - cachedLayout.getCachedNanos() > timeToLiveNanos;
+    }
+
+
+    public int getSize() {
+        synchronized (layouts) {
+            return layouts.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedLayout {
+        private final GridLayout layout;
+        private final long cachedNanos;
+    }
+}
@@ -0,0 +1,29 @@
+package org.vaadin.example.gridsettings;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+
+/**
+ * Notifications about changed layouts between application nodes.
+ * Node publishes names of layouts it has written to the shared store; other nodes drop only these layouts
+ * from their caches and read them from the store again.
+ */
+public interface GridLayoutChangeNotifier {
+
+    /**
+     * Tell other nodes that layouts were written. Node doesn't receive its own notifications.
+     */
+    void publish(Collection<String> settingsNames) throws IOException;
+
+    /**
+     * Listener is called with name of every layout changed by other node
+     */
+    void subscribe(Consumer<String> listener);
+
+    /**
+     * Stop receiving notifications
+     */
+    void close();
+}
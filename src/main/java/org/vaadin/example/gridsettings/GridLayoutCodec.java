@@ -0,0 +1,221 @@
+package org.vaadin.example.gridsettings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+
+/**
+ * Grid layout serialization, shared by all settings stores.
+ * <p>
+ * Current format is binary:
+ * <pre>
+ * magic (2 bytes) | format version (1 byte) | column count (varint) | columns... | CRC32 of all previous bytes (4 bytes)
+ * column: flags (1 byte: visible, width present) | key (varint length + UTF-8) | width (varint length + UTF-8, if present)
+ * </pre>
+ * Legacy text format (one "key/visible/width/header" line per column, written by v4 manager) is still readable,
+ * stores rewrite it in current format on first load.
+ * <p>
+ * Layout change ({@link GridLayoutDelta}), used by layout journals:
+ * <pre>
+ * changed column count (varint) | columns... | column order count + 1 (varint, 0 if order is not changed) | keys...
+ * </pre>
+ */
+public final class GridLayoutCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    // First byte can't start legacy text file (it is not valid UTF-8 start byte)
+    private static final byte[] MAGIC = {(byte) 0xC0, (byte) 0x4C};
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+    private static final int CHECKSUM_LENGTH = 4;
+
+    private static final int FLAG_VISIBLE = 1;
+    private static final int FLAG_WIDTH = 1 << 1;
+    // Minimal encoded length of column (flags and empty key) and of string (empty)
+    private static final int MIN_COLUMN_LENGTH = 2;
+    private static final int MIN_STRING_LENGTH = 1;
+
+    private static final char LEGACY_DELIMITER = '/';
+    private static final String LEGACY_NULL_WIDTH = "null";
+
+    private GridLayoutCodec() {
+    }
+
+
+    public static byte[] encode(GridLayout layout) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(16 + layout.getColumns().size() * 24);
+        output.write(MAGIC, 0, MAGIC.length);
+        output.write(FORMAT_VERSION);
+        writeVarInt(output, layout.getColumns().size());
+        layout.getColumns().forEach(column -> writeColumn(output, column));
+        CRC32 crc = new CRC32();
+        byte[] bytes = output.toByteArray();
+        crc.update(bytes, 0, bytes.length);
+        int checksum = (int) crc.getValue();
+        byte[] result = new byte[bytes.length + CHECKSUM_LENGTH];
+        System.arraycopy(bytes, 0, result, 0, bytes.length);
+        ByteBuffer.wrap(result, bytes.length, CHECKSUM_LENGTH).putInt(checksum);
+        return result;
+    }
+
+
+    public static GridLayout decode(byte[] bytes) throws IOException {
+        if (isLegacyFormat(bytes)) return decodeLegacy(bytes);
+        if (bytes.length < HEADER_LENGTH + CHECKSUM_LENGTH) throw new IOException("Grid layout is truncated");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - CHECKSUM_LENGTH);
+        if ((int) crc.getValue() != buffer.getInt(bytes.length - CHECKSUM_LENGTH)) {
+            throw new IOException("Grid layout checksum mismatch");
+        }
+        int version = bytes[MAGIC.length];
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported grid layout format version " + version);
+        buffer.position(HEADER_LENGTH);
+        buffer.limit(bytes.length - CHECKSUM_LENGTH);
+        try {
+            int count = readLength(buffer, MIN_COLUMN_LENGTH);
+            List<ColumnSettings> columns = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) columns.add(readColumn(buffer));
+            return new GridLayout(columns);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Grid layout is malformed", e);
+        }
+    }
+
+
+    public static byte[] encodeDelta(GridLayoutDelta delta) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(8 + delta.getChangedColumns().size() * 24);
+        writeVarInt(output, delta.getChangedColumns().size());
+        delta.getChangedColumns().forEach(column -> writeColumn(output, column));
+        if (delta.getColumnOrder() == null) {
+            writeVarInt(output, 0);
+        } else {
+            writeVarInt(output, delta.getColumnOrder().size() + 1);
+            delta.getColumnOrder().forEach(key -> writeString(output, key));
+        }
+        return output.toByteArray();
+    }
+
+
+    public static GridLayoutDelta decodeDelta(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            int count = readLength(buffer, MIN_COLUMN_LENGTH);
+            List<ColumnSettings> changedColumns = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) changedColumns.add(readColumn(buffer));
+            int orderCount = readVarInt(buffer) - 1;
+            List<String> columnOrder = null;
+            if (orderCount >= 0) {
+                if (orderCount * (long) MIN_STRING_LENGTH > buffer.remaining()) throw new IOException("Grid layout change is malformed");
+                columnOrder = new ArrayList<>(orderCount);
+                for (int i = 0; i < orderCount; i++) columnOrder.add(readString(buffer));
+            }
+            return new GridLayoutDelta(changedColumns, columnOrder);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Grid layout change is malformed", e);
+        }
+    }
+
+
+    /**
+     * Is it layout in legacy text format, that must be rewritten
+     */
+    public static boolean isLegacyFormat(byte[] bytes) {
+        return bytes.length < MAGIC.length || bytes[0] != MAGIC[0] || bytes[1] != MAGIC[1];
+    }
+
+
+    /**
+     * Legacy format: one "key/visible/width/header" line per column, header is ignored
+     */
+    private static GridLayout decodeLegacy(byte[] bytes) {
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        List<ColumnSettings> columns = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = text.length();
+            int visibleStart = text.indexOf(LEGACY_DELIMITER, lineStart) + 1;
+            int widthStart = visibleStart > 0 ? text.indexOf(LEGACY_DELIMITER, visibleStart) + 1 : 0;
+            if (visibleStart > 0 && widthStart > 0 && widthStart <= lineEnd) {
+                int widthEnd = text.indexOf(LEGACY_DELIMITER, widthStart);
+                if (widthEnd < 0 || widthEnd > lineEnd) widthEnd = lineEnd;
+                String width = text.substring(widthStart, widthEnd).trim();
+                if (!width.isEmpty()) {
+                    columns.add(new ColumnSettings(
+                            text.substring(lineStart, visibleStart - 1),
+                            Boolean.parseBoolean(text.substring(visibleStart, widthStart - 1)),
+                            LEGACY_NULL_WIDTH.equals(width) ? null : width));
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return new GridLayout(columns);
+    }
+
+
+    private static void writeColumn(ByteArrayOutputStream output, ColumnSettings column) {
+        int flags = (column.isVisible() ? FLAG_VISIBLE : 0) | (column.getWidth() != null ? FLAG_WIDTH : 0);
+        output.write(flags);
+        writeString(output, column.getKey());
+        if (column.getWidth() != null) writeString(output, column.getWidth());
+    }
+
+    private static ColumnSettings readColumn(ByteBuffer buffer) throws IOException {
+        int flags = buffer.get();
+        String key = readString(buffer);
+        String width = (flags & FLAG_WIDTH) != 0 ? readString(buffer) : null;
+        return new ColumnSettings(key, (flags & FLAG_VISIBLE) != 0, width);
+    }
+
+
+    static void writeString(ByteArrayOutputStream output, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, bytes.length);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = readLength(buffer, 1);
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Count or length (varint), checked against remaining bytes, so corrupted value can't cause huge allocation
+     *
+     * @param minItemBytes - minimal encoded length of one item
+     */
+    private static int readLength(ByteBuffer buffer, int minItemBytes) throws IOException {
+        int length = readVarInt(buffer);
+        if (length < 0 || length * (long) minItemBytes > buffer.remaining()) {
+            throw new IOException("Grid layout is malformed: length " + length + " exceeds remaining " + buffer.remaining() + " bytes");
+        }
+        return length;
+    }
+
+    static void writeVarInt(ByteArrayOutputStream output, int value) {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
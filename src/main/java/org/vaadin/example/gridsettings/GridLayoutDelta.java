@@ -0,0 +1,60 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+/**
+ * Change of grid layout: changed and added columns, and keys of all columns in new order if order is changed.
+ * Columns that are not in new order are removed.
+ */
+@Getter
+@AllArgsConstructor
+public class GridLayoutDelta {
+
+    private final List<ColumnSettings> changedColumns;
+    // Null if order is not changed
+    private final List<String> columnOrder;
+
+
+    public static GridLayoutDelta between(GridLayout from, GridLayout to) {
+        Map<String, ColumnSettings> fromColumns = new HashMap<>();
+        from.getColumns().forEach(column -> fromColumns.put(column.getKey(), column));
+        List<ColumnSettings> changedColumns = to.getColumns().stream()
+                .filter(column -> !column.equals(fromColumns.get(column.getKey())))
+                .collect(Collectors.toList());
+        List<String> toKeys = getKeys(to);
+        return new GridLayoutDelta(changedColumns, getKeys(from).equals(toKeys) ? null : toKeys);
+    }
+
+
+    public boolean isEmpty() {
+        return changedColumns.isEmpty() && columnOrder == null;
+    }
+
+
+    public GridLayout applyTo(GridLayout layout) {
+        Map<String, ColumnSettings> columns = new LinkedHashMap<>();
+        layout.getColumns().forEach(column -> columns.put(column.getKey(), column));
+        changedColumns.forEach(column -> columns.put(column.getKey(), column));
+        if (columnOrder == null) return new GridLayout(new ArrayList<>(columns.values()));
+        List<ColumnSettings> orderedColumns = new ArrayList<>(columnOrder.size());
+        columnOrder.forEach(key -> {
+            ColumnSettings column = columns.get(key);
+            if (column != null) orderedColumns.add(column);
+        });
+        return new GridLayout(orderedColumns);
+    }
+
+
+    private static List<String> getKeys(GridLayout layout) {
+        return layout.getColumns().stream().map(ColumnSettings::getKey).collect(Collectors.toList());
+    }
+}
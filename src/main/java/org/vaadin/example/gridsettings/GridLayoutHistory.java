@@ -0,0 +1,60 @@
+package org.vaadin.example.gridsettings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Bounded undo/redo history of grid layouts. The oldest layouts are dropped when history is full;
+ * new layout after undo drops layouts that could be redone.
+ */
+public class GridLayoutHistory {
+
+    private final int maxSize;
+    private final List<GridLayout> layouts = new ArrayList<>();
+    // Position of current layout, -1 if history is empty
+    private int current = -1;
+
+
+    public GridLayoutHistory(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+
+    /**
+     * Add current layout, it is ignored if it is the same as current one
+     */
+    public void add(GridLayout layout) {
+        if (current >= 0 && layouts.get(current).equals(layout)) return;
+        layouts.subList(current + 1, layouts.size()).clear();
+        layouts.add(layout);
+        if (layouts.size() > maxSize) layouts.remove(0);
+        current = layouts.size() - 1;
+    }
+
+
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    public boolean canRedo() {
+        return current < layouts.size() - 1;
+    }
+
+
+    /**
+     * Previous layout, it becomes current
+     */
+    public GridLayout undo() {
+        if (!canUndo()) throw new IllegalStateException("Nothing to undo");
+        return layouts.get(--current);
+    }
+
+    /**
+     * Next layout, it becomes current
+     */
+    public GridLayout redo() {
+        if (!canRedo()) throw new IllegalStateException("Nothing to redo");
+        return layouts.get(++current);
+    }
+}
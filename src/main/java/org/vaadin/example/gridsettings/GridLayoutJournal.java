@@ -0,0 +1,88 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+
+/**
+ * Append-only journal of layout changes, kept next to layout snapshot file by {@link FileGridSettingsStore}:
+ * <pre>
+ * header: magic (2 bytes) | CRC32 of snapshot file, that journal changes (4 bytes)
+ * record: length (varint) | layout change, see {@link GridLayoutCodec} | CRC32 of change (4 bytes)
+ * </pre>
+ * Journal of other snapshot (snapshot is rewritten, but journal is not deleted yet) is ignored.
+ * Record torn by crash and everything after it are ignored.
+ */
+@Slf4j
+final class GridLayoutJournal {
+
+    private static final byte[] MAGIC = {(byte) 0xC0, (byte) 0x4A};
+    private static final int HEADER_LENGTH = MAGIC.length + 4;
+    private static final int CHECKSUM_LENGTH = 4;
+
+    private GridLayoutJournal() {
+    }
+
+
+    static byte[] encodeHeader(long snapshotChecksum) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(MAGIC);
+        header.putInt((int) snapshotChecksum);
+        return header.array();
+    }
+
+
+    static byte[] encodeRecord(GridLayoutDelta delta) {
+        byte[] change = GridLayoutCodec.encodeDelta(delta);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(change.length + 8);
+        GridLayoutCodec.writeVarInt(output, change.length);
+        output.write(change, 0, change.length);
+        int checksum = checksum(change, 0, change.length);
+        output.write(checksum >>> 24);
+        output.write(checksum >>> 16);
+        output.write(checksum >>> 8);
+        output.write(checksum);
+        return output.toByteArray();
+    }
+
+
+    /**
+     * Layout changes in journal, empty if journal is made for other snapshot
+     */
+    static List<GridLayoutDelta> read(byte[] journal, long snapshotChecksum) {
+        List<GridLayoutDelta> deltas = new ArrayList<>();
+        if (journal.length < HEADER_LENGTH || journal[0] != MAGIC[0] || journal[1] != MAGIC[1]) return deltas;
+        ByteBuffer buffer = ByteBuffer.wrap(journal);
+        if (buffer.getInt(MAGIC.length) != (int) snapshotChecksum) return deltas;
+        buffer.position(HEADER_LENGTH);
+        try {
+            while (buffer.hasRemaining()) {
+                int length = GridLayoutCodec.readVarInt(buffer);
+                if (length < 0 || length + CHECKSUM_LENGTH > buffer.remaining()) break;
+                int start = buffer.position();
+                if (checksum(journal, start, length) != buffer.getInt(start + length)) break;
+                byte[] change = new byte[length];
+                buffer.get(change);
+                buffer.position(buffer.position() + CHECKSUM_LENGTH);
+                deltas.add(GridLayoutCodec.decodeDelta(change));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IOException e) {
+            log.warn("Grid layout journal has malformed tail, it is ignored. Changes read={}", deltas.size(), e);
+        }
+        return deltas;
+    }
+
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
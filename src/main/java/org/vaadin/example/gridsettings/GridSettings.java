@@ -0,0 +1,156 @@
+package org.vaadin.example.gridsettings;
+
+import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.Timer;
+import org.vaadin.example.gridmetrics.GridMetrics;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+
+/**
+ * Application wide access point to grid settings, used by columns managers.
+ * Layouts are written through write-behind writer; by default they are stored in files of settings folder,
+ * another store can be configured on application start (before first use, then settings folder is not touched).
+ * Loaded and saved layouts are kept in shared cache, so reopening a grid doesn't touch the store.
+ * In cluster, change notifier drops layouts written by other nodes from the cache.
+ */
+public final class GridSettings {
+
+    public static final String DEFAULT_SETTINGS_FOLDER = "ui_params";
+    // Default time window for collecting changes before writing layout
+    public static final long DEFAULT_COALESCE_WINDOW_MILLIS = 500;
+    // Default bounds of layouts cache
+    public static final int DEFAULT_CACHE_MAX_SIZE = 10_000;
+    public static final long DEFAULT_CACHE_TTL_SECONDS = 600;
+    // Count of layouts written to the store at once on import
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    // Default file store is created on first use, so configured store (or benchmark store) never touches settings folder
+    private static final GridSettingsWriter WRITER = new GridSettingsWriter(
+            () -> new FileGridSettingsStore(Paths.get(DEFAULT_SETTINGS_FOLDER)), DEFAULT_COALESCE_WINDOW_MILLIS);
+    private static final GridLayoutCache CACHE = new GridLayoutCache(DEFAULT_CACHE_MAX_SIZE, DEFAULT_CACHE_TTL_SECONDS);
+    // Grids showing layouts, notified when layout is changed outside. Map SETTINGS NAME => listeners
+    private static final Map<String, List<Consumer<GridLayout>>> LAYOUT_LISTENERS = new ConcurrentHashMap<>();
+
+    private GridSettings() {
+    }
+
+
+    /**
+     * Load layout. Not yet written layout is newer than stored one, so it is returned first.
+     */
+    public static Optional<GridLayout> load(String settingsName) throws IOException {
+        GridLayout pendingLayout = WRITER.getPending(settingsName);
+        if (pendingLayout != null) return Optional.of(pendingLayout);
+        GridLayout cachedLayout = CACHE.get(settingsName);
+        if (cachedLayout != null) return Optional.of(cachedLayout);
+        Timer.Sample sample = Timer.start();
+        Optional<GridLayout> storedLayout;
+        try {
+            storedLayout = WRITER.getStore().load(settingsName);
+        } finally {
+            sample.stop(GridMetrics.timer(GridMetrics.SETTINGS_READ, GridMetrics.gridIdOf(settingsName)));
+        }
+        storedLayout.ifPresent(layout -> CACHE.putIfAbsent(settingsName, layout));
+        return storedLayout;
+    }
+
+
+    /**
+     * Queue layout for saving
+     */
+    public static void save(String settingsName, GridLayout layout) {
+        CACHE.put(settingsName, layout);
+        WRITER.submit(settingsName, layout);
+    }
+
+
+    /**
+     * Listen for layout changes made outside of columns managers (settings file edited or restored).
+     * Listener is called on watcher thread.
+     */
+    public static Registration addLayoutListener(String settingsName, Consumer<GridLayout> listener) {
+        LAYOUT_LISTENERS.computeIfAbsent(settingsName, name -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> LAYOUT_LISTENERS.computeIfPresent(settingsName, (name, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+
+    /**
+     * Layout is changed outside: it replaces not yet written one and is applied to grids showing it
+     */
+    static void applyExternalChange(String settingsName, GridLayout layout) {
+        WRITER.discardPending(settingsName);
+        CACHE.put(settingsName, layout);
+        LAYOUT_LISTENERS.getOrDefault(settingsName, Collections.emptyList()).forEach(listener -> listener.accept(layout));
+    }
+
+
+    /**
+     * Write stored layouts with names starting with prefix to archive, see {@link GridLayoutArchive}
+     *
+     * @return count of exported layouts
+     */
+    public static int exportLayouts(String prefix, WritableByteChannel channel) throws IOException {
+        WRITER.flushAll();
+        return GridLayoutArchive.write(getStore(), prefix, channel);
+    }
+
+
+    /**
+     * Store layouts from archive with names starting with prefix. Stored layouts with the same names are replaced.
+     *
+     * @return count of imported layouts
+     */
+    public static int importLayouts(String prefix, ReadableByteChannel channel) throws IOException {
+        WRITER.flushAll();
+        return GridLayoutArchive.read(channel, prefix, IMPORT_BATCH_SIZE, layouts -> {
+            // Written by writer thread, as all layouts of the store
+            WRITER.writeAll(layouts);
+            layouts.forEach((settingsName, layout) -> {
+                CACHE.invalidate(settingsName);
+                LAYOUT_LISTENERS.getOrDefault(settingsName, Collections.emptyList()).forEach(listener -> listener.accept(layout));
+            });
+            GridLayoutChangeNotifier changeNotifier = WRITER.getChangeNotifier();
+            if (changeNotifier != null) changeNotifier.publish(layouts.keySet());
+        });
+    }
+
+
+    public static GridSettingsWriter getWriter() {
+        return WRITER;
+    }
+
+    public static GridLayoutCache getCache() {
+        return CACHE;
+    }
+
+    public static GridSettingsStore getStore() {
+        return WRITER.getStore();
+    }
+
+    public static void setStore(GridSettingsStore store) {
+        WRITER.setStore(store);
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * Connect to other nodes: written layouts are published, layouts written by other nodes are dropped from cache
+     */
+    public static void setChangeNotifier(GridLayoutChangeNotifier changeNotifier) {
+        changeNotifier.subscribe(CACHE::invalidate);
+        WRITER.setChangeNotifier(changeNotifier);
+    }
+}
@@ -0,0 +1,43 @@
+package org.vaadin.example.gridsettings;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+
+/**
+ * Admin API for backup and bulk provisioning of grid layouts.
+ * Export streams all layouts with names starting with prefix as one archive, import stores layouts from archive.
+ * Enabled by "grid-settings.admin.enabled=true", must be protected by infrastructure (not exposed to users).
+ */
+@RestController
+@RequestMapping("/admin/grid-settings")
+@ConditionalOnProperty(name = "grid-settings.admin.enabled", havingValue = "true")
+public class GridSettingsAdminController {
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportLayouts(@RequestParam(defaultValue = "") String prefix) {
+        StreamingResponseBody body = outputStream -> GridSettings.exportLayouts(prefix, Channels.newChannel(outputStream));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"grid-layouts.glar\"")
+                .body(body);
+    }
+
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public String importLayouts(@RequestParam(defaultValue = "") String prefix, HttpServletRequest request) throws IOException {
+        int count = GridSettings.importLayouts(prefix, Channels.newChannel(request.getInputStream()));
+        return "Imported grid layouts: " + count;
+    }
+}
@@ -0,0 +1,56 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.extern.slf4j.Slf4j;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+
+/**
+ * Grid settings store selection. Files in settings folder are used by default,
+ * "grid-settings.store=jdbc" switches to embedded H2 database (on first start layouts of settings folder are imported).
+ * "grid-settings.cluster.notifier=directory" enables layout change notifications between nodes through shared directory.
+ */
+@Slf4j
+@Configuration
+public class GridSettingsConfiguration {
+
+    // Count of layouts written to database at once on import of settings folder
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(name = "grid-settings.store", havingValue = "jdbc")
+    public JdbcConnectionPool gridSettingsDataSource(@Value("${grid-settings.jdbc.url}") String url,
+                                                     @Value("${grid-settings.jdbc.username:sa}") String username,
+                                                     @Value("${grid-settings.jdbc.password:}") String password) {
+        return JdbcConnectionPool.create(url, username, password);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "grid-settings.store", havingValue = "jdbc")
+    public GridSettingsStore jdbcGridSettingsStore(JdbcConnectionPool gridSettingsDataSource,
+                                                   @Value("${grid-settings.jdbc.import-folder:" + GridSettings.DEFAULT_SETTINGS_FOLDER + "}") String importFolder) throws IOException {
+        JdbcGridSettingsStore store = new JdbcGridSettingsStore(gridSettingsDataSource);
+        Path folder = Paths.get(importFolder);
+        if (!importFolder.isEmpty() && Files.isDirectory(folder)) {
+            int count = store.importIfEmpty(new FileGridSettingsStore(folder), IMPORT_BATCH_SIZE);
+            if (count > 0) log.info("Grid settings imported from settings folder to database. Folder={}, layouts count={}", folder, count);
+        }
+        return store;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "grid-settings.cluster.notifier", havingValue = "directory")
+    public GridLayoutChangeNotifier directoryGridLayoutChangeNotifier(@Value("${grid-settings.cluster.directory}") String directory,
+                                                                      @Value("${grid-settings.cluster.poll-interval-ms:1000}") long pollIntervalMillis,
+                                                                      @Value("${grid-settings.cluster.retention-ms:600000}") long retentionMillis) throws IOException {
+        return new DirectoryGridLayoutChangeNotifier(Paths.get(directory), pollIntervalMillis, retentionMillis);
+    }
+}
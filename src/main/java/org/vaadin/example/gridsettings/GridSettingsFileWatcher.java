@@ -0,0 +1,138 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Watches settings folder (with shard subfolders) of {@link FileGridSettingsStore} for files changed outside of the application
+ * (edited by operator, restored from backup). Changed layouts are reloaded and applied to grids showing them.
+ * Events are coalesced: after the first event watcher waits until folder is quiet for coalesce window,
+ * so every changed file is reloaded once per burst of changes. Folder written constantly is never quiet, so batch is
+ * reloaded anyway after {@value #MAX_BATCH_WINDOWS} coalesce windows or {@value #MAX_BATCH_NAMES} changed layouts.
+ * Own writes of the store are recognized by checksum.
+ * Only settings folder and existing shard folders are watched (one watch per folder, less than 300 in all).
+ */
+@Slf4j
+public class GridSettingsFileWatcher {
+
+    // Bounds of one batch of changes
+    private static final int MAX_BATCH_WINDOWS = 10;
+    private static final int MAX_BATCH_NAMES = 10_000;
+
+    private final FileGridSettingsStore store;
+    private final long coalesceWindowMillis;
+    private final WatchService watchService;
+
+
+    public GridSettingsFileWatcher(FileGridSettingsStore store, long coalesceWindowMillis) throws IOException {
+        this.store = store;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        watchService = store.getSettingsFolder().getFileSystem().newWatchService();
+        register(store.getSettingsFolder());
+        Thread thread = new Thread(this::watch, "grid-settings-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /**
+     * Watch folder and its shard subfolders, watch service doesn't watch subfolders by itself.
+     * Folders below shard levels are not watched.
+     */
+    private void register(Path folder) throws IOException {
+        Path settingsFolder = store.getSettingsFolder();
+        int level = folder.equals(settingsFolder) ? 0 : settingsFolder.relativize(folder).getNameCount();
+        if (level > FileGridSettingsStore.SHARD_LEVELS) return;
+        try (Stream<Path> folders = Files.walk(folder, FileGridSettingsStore.SHARD_LEVELS - level)) {
+            for (Path path : (Iterable<Path>) folders.filter(Files::isDirectory)::iterator) {
+                path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+
+
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Error while closing grid settings file watcher", e);
+        }
+    }
+
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<String> changedNames = new LinkedHashSet<>();
+                collectEvents(watchService.take(), changedNames);
+                // Burst of changes: wait until folder is quiet, but not longer than batch bounds
+                long batchDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(coalesceWindowMillis * MAX_BATCH_WINDOWS);
+                while (changedNames.size() < MAX_BATCH_NAMES) {
+                    long waitNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(coalesceWindowMillis), batchDeadline - System.nanoTime());
+                    if (waitNanos <= 0) break;
+                    WatchKey watchKey = watchService.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (watchKey == null) break;
+                    collectEvents(watchKey, changedNames);
+                }
+                changedNames.forEach(this::reload);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Watcher is closed
+        }
+    }
+
+
+    private void collectEvents(WatchKey watchKey, Set<String> changedNames) {
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                log.warn("Grid settings file watcher missed events, external changes may be not applied. Folder={}", store.getSettingsFolder());
+                continue;
+            }
+            Path path = ((Path) watchKey.watchable()).resolve((Path) event.context());
+            String fileName = path.getFileName().toString();
+            if (Files.isDirectory(path)) {
+                // New shard
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    log.error("Error while watching grid settings folder. Folder={}", path, e);
+                }
+            } else if (fileName.endsWith(FileGridSettingsStore.JOURNAL_FILE_SUFFIX)) {
+                // Change appended to layout journal
+                changedNames.add(fileName.substring(0, fileName.length() - FileGridSettingsStore.JOURNAL_FILE_SUFFIX.length()));
+            } else if (!fileName.endsWith(FileGridSettingsStore.TEMP_FILE_SUFFIX) && !fileName.equals(FileGridSettingsStore.INDEX_FILE_NAME)) {
+                changedNames.add(fileName);
+            }
+        }
+        watchKey.reset();
+    }
+
+
+    private void reload(String settingsName) {
+        try {
+            Optional<GridLayout> layout = store.loadIfExternallyModified(settingsName);
+            if (layout.isPresent()) {
+                log.info("Grid settings file is changed outside, reloading. Setting file name={}", settingsName);
+                GridSettings.applyExternalChange(settingsName, layout.get());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while reloading grid settings file. Setting file name={}", settingsName, e);
+        }
+    }
+}
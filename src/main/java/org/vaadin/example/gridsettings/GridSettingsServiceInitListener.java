@@ -0,0 +1,57 @@
+package org.vaadin.example.gridsettings;
+
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.spring.annotation.SpringComponent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Optional;
+
+
+/**
+ * Connects grid settings to application lifecycle:
+ * applies configured store, cache bounds and change notifier, starts settings folder watcher,
+ * flushes pending settings when session is destroyed and on shutdown.
+ */
+@Slf4j
+@SpringComponent
+public class GridSettingsServiceInitListener implements VaadinServiceInitListener {
+
+    private final GridSettingsWriter settingsWriter = GridSettings.getWriter();
+    private GridSettingsFileWatcher fileWatcher;
+
+    public GridSettingsServiceInitListener(@Value("${grid-settings.write-behind.coalesce-window-ms:500}") long coalesceWindowMillis,
+                                           @Value("${grid-settings.cache.max-size:10000}") int cacheMaxSize,
+                                           @Value("${grid-settings.cache.ttl-seconds:600}") long cacheTimeToLiveSeconds,
+                                           Optional<GridSettingsStore> configuredStore,
+                                           Optional<GridLayoutChangeNotifier> changeNotifier,
+                                           @Value("${grid-settings.file-watch.enabled:false}") boolean fileWatchEnabled,
+                                           @Value("${grid-settings.file-watch.coalesce-window-ms:300}") long fileWatchCoalesceWindowMillis) {
+        settingsWriter.setCoalesceWindowMillis(coalesceWindowMillis);
+        GridSettings.getCache().configure(cacheMaxSize, cacheTimeToLiveSeconds);
+        configuredStore.ifPresent(GridSettings::setStore);
+        changeNotifier.ifPresent(GridSettings::setChangeNotifier);
+        if (fileWatchEnabled && GridSettings.getStore() instanceof FileGridSettingsStore) {
+            try {
+                fileWatcher = new GridSettingsFileWatcher((FileGridSettingsStore) GridSettings.getStore(), fileWatchCoalesceWindowMillis);
+            } catch (IOException e) {
+                log.error("Error while starting grid settings file watcher", e);
+            }
+        }
+    }
+
+    @Override
+    public void serviceInit(ServiceInitEvent event) {
+        event.getSource().addSessionDestroyListener(sessionDestroyEvent -> settingsWriter.flushAll());
+        event.getSource().addServiceDestroyListener(serviceDestroyEvent -> settingsWriter.flushAll());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fileWatcher != null) fileWatcher.close();
+        settingsWriter.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package org.vaadin.example.gridsettings;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+
+/**
+ * Storage of grid layouts. Layout is identified by settings name, built by columns manager from grid ids.
+ * Implementations must be thread safe: loading is done on request threads, saving on settings writer thread.
+ */
+public interface GridSettingsStore {
+
+    /**
+     * Load layout, empty if it was never saved
+     */
+    Optional<GridLayout> load(String settingsName) throws IOException;
+
+    /**
+     * Save (insert or replace) layout
+     */
+    void save(String settingsName, GridLayout layout) throws IOException;
+
+    /**
+     * Names of stored layouts starting with prefix, in no particular order
+     */
+    List<String> getSettingsNames(String prefix) throws IOException;
+
+    /**
+     * Names of most recently saved layouts, newest first. Stores that know saving time should override it.
+     */
+    default List<String> getRecentSettingsNames(int limit) throws IOException {
+        List<String> settingsNames = getSettingsNames("");
+        return settingsNames.size() > limit ? settingsNames.subList(0, limit) : settingsNames;
+    }
+
+    /**
+     * Save several layouts at once. Stores that can write in batches should override it.
+     */
+    default void saveAll(Map<String, GridLayout> layouts) throws IOException {
+        for (Map.Entry<String, GridLayout> entry : layouts.entrySet()) {
+            save(entry.getKey(), entry.getValue());
+        }
+    }
+}
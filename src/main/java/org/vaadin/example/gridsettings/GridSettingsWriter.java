@@ -0,0 +1,297 @@
+package org.vaadin.example.gridsettings;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.vaadin.example.gridmetrics.GridMetrics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+
+/**
+ * Write-behind writer for grid settings.
+ * Changes are queued per settings name, coalesced within a time window (only the latest layout is written)
+ * and flushed by single background thread, so the UI thread never waits for the store.
+ * Layouts that are due at the same time are written to the store as one batch.
+ * Layouts of a failed batch are queued again (unless newer layout is already queued) and retried with growing delay,
+ * so store errors never lose layouts. Queue depth, coalesced and failed writes are exposed as meters.
+ */
+@Slf4j
+public class GridSettingsWriter {
+
+    private static final long FLUSH_ALL_TIMEOUT_SECONDS = 30;
+    // Upper bound of delay between retries of failed writes
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+    private final ScheduledExecutorService executor;
+    // Pending layouts. Map SETTINGS NAME => latest layout
+    private final ConcurrentHashMap<String, PendingLayout> pendingLayouts = new ConcurrentHashMap<>();
+    // Store used until other one is set, created on first use
+    private final Supplier<GridSettingsStore> defaultStore;
+    private volatile GridSettingsStore store;
+    private volatile long coalesceWindowMillis;
+    // Other nodes are notified about written layouts, null for single node
+    private volatile GridLayoutChangeNotifier changeNotifier;
+
+    // Statistics. Batch of several grids and the queue are measured as a whole, counters are per grid
+    private final Timer batchWriteTimer = GridMetrics.timer(GridMetrics.SETTINGS_WRITE_BATCH);
+
+
+    /**
+     * Constructor
+     *
+     * @param defaultStore         - store to write layouts to, unless other one is set before first use
+     * @param coalesceWindowMillis - how long changes of one layout are collected before writing
+     */
+    public GridSettingsWriter(Supplier<GridSettingsStore> defaultStore, long coalesceWindowMillis) {
+        this.defaultStore = defaultStore;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grid-settings-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        GridMetrics.gauge(GridMetrics.SETTINGS_WRITE_QUEUE, pendingLayouts, Map::size);
+    }
+
+
+    /**
+     * Queue layout for writing. Layout queued earlier with the same name and not yet written is replaced.
+     */
+    public void submit(String settingsName, GridLayout layout) {
+        boolean[] firstInWindow = {false};
+        pendingLayouts.compute(settingsName, (key, previous) -> {
+            if (previous == null) {
+                firstInWindow[0] = true;
+                return new PendingLayout(layout, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(coalesceWindowMillis), 0);
+            }
+            // Keep due time of the first change, so constant changes can't postpone writing forever
+            GridMetrics.counter(GridMetrics.SETTINGS_WRITE_COALESCED, GridMetrics.gridIdOf(settingsName)).increment();
+            return new PendingLayout(layout, previous.getDueNanos(), previous.getFailedAttempts());
+        });
+        if (firstInWindow[0] && !scheduleFlush(coalesceWindowMillis)) {
+            // Writer is already stopped (application shutdown), write in caller thread
+            flush(true);
+        }
+    }
+
+
+    /**
+     * Schedule flush of due layouts. First change in window schedules flush, later changes are picked up by the same flush.
+     *
+     * @return false if writer is stopped
+     */
+    private boolean scheduleFlush(long delayMillis) {
+        try {
+            executor.schedule(() -> flush(false), delayMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * Layout queued but not written yet, null if there is nothing pending.
+     * Readers must prefer it to stored layout, otherwise they can see stale settings.
+     */
+    public GridLayout getPending(String settingsName) {
+        PendingLayout pendingLayout = pendingLayouts.get(settingsName);
+        return pendingLayout == null ? null : pendingLayout.getLayout();
+    }
+
+
+    /**
+     * Drop layout queued but not written yet, it is replaced by layout changed outside
+     */
+    public void discardPending(String settingsName) {
+        pendingLayouts.remove(settingsName);
+    }
+
+
+    /**
+     * Write all pending layouts and wait until it is done.
+     * Writing is done by writer thread, so writes of the same layout never run concurrently.
+     */
+    public void flushAll() {
+        if (pendingLayouts.isEmpty()) return;
+        try {
+            executor.submit(() -> flush(true)).get(FLUSH_ALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            flush(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Error while flushing grid settings. Pending layouts count={}", pendingLayouts.size(), e);
+        }
+    }
+
+
+    /**
+     * Write layouts to the store right now (import), on writer thread, so they are never written concurrently
+     * with queued layouts. Queued layouts with the same names are older and are dropped.
+     */
+    public void writeAll(Map<String, GridLayout> layouts) throws IOException {
+        layouts.keySet().forEach(pendingLayouts::remove);
+        try {
+            executor.submit(() -> {
+                getStore().saveAll(layouts);
+                return null;
+            }).get();
+        } catch (RejectedExecutionException e) {
+            // Writer is stopped, nothing else writes
+            getStore().saveAll(layouts);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing grid settings");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Error while writing grid settings", e.getCause());
+        }
+    }
+
+
+    /**
+     * Flush everything and stop writer thread.
+     */
+    public void shutdown() {
+        flushAll();
+        executor.shutdown();
+    }
+
+
+    /**
+     * Write pending layouts as one batch
+     *
+     * @param all - write all layouts, otherwise only due ones (waited for the whole coalesce window or retry delay)
+     */
+    private void flush(boolean all) {
+        long now = System.nanoTime();
+        // Map SETTINGS NAME => written layout
+        Map<String, PendingLayout> batch = new LinkedHashMap<>();
+        new ArrayList<>(pendingLayouts.keySet()).forEach(settingsName -> {
+            PendingLayout pendingLayout = pendingLayouts.get(settingsName);
+            if (pendingLayout != null && (all || pendingLayout.getDueNanos() - now <= 0)) {
+                // Remove the latest layout, even if it was replaced right now
+                PendingLayout latest = pendingLayouts.remove(settingsName);
+                if (latest != null) batch.put(settingsName, latest);
+            }
+        });
+        if (batch.isEmpty()) return;
+        Map<String, GridLayout> layouts = new LinkedHashMap<>();
+        batch.forEach((settingsName, pendingLayout) -> layouts.put(settingsName, pendingLayout.getLayout()));
+        long start = System.nanoTime();
+        try {
+            getStore().saveAll(layouts);
+            countByGrid(GridMetrics.SETTINGS_WRITTEN, layouts.keySet());
+            notifyOtherNodes(layouts.keySet());
+        } catch (IOException | RuntimeException e) {
+            countByGrid(GridMetrics.SETTINGS_WRITE_FAILED, layouts.keySet());
+            log.error("Error while saving grid settings parameters, writing will be retried. Setting names={}", layouts.keySet(), e);
+            retry(batch);
+        } finally {
+            batchWriteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+
+    private static void countByGrid(String counterName, Collection<String> settingsNames) {
+        settingsNames.stream()
+                .collect(Collectors.groupingBy(GridMetrics::gridIdOf, Collectors.counting()))
+                .forEach((gridId, count) -> GridMetrics.counter(counterName, gridId).increment(count));
+    }
+
+
+    /**
+     * Queue layouts of failed batch again, delay is doubled with every failed attempt.
+     * Layout queued while the batch was written is newer and is kept.
+     */
+    private void retry(Map<String, PendingLayout> batch) {
+        long maxDelayMillis = 0;
+        for (Map.Entry<String, PendingLayout> entry : batch.entrySet()) {
+            int failedAttempts = entry.getValue().getFailedAttempts() + 1;
+            long delayMillis = Math.min(Math.max(coalesceWindowMillis, 1) << Math.min(failedAttempts, 16), MAX_RETRY_DELAY_MILLIS);
+            maxDelayMillis = Math.max(maxDelayMillis, delayMillis);
+            pendingLayouts.putIfAbsent(entry.getKey(), new PendingLayout(entry.getValue().getLayout(),
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis), failedAttempts));
+        }
+        if (!scheduleFlush(maxDelayMillis)) {
+            log.error("Grid settings writer is stopped, failed layouts are not written. Setting names={}", batch.keySet());
+        }
+    }
+
+
+    /**
+     * Notification is sent after layouts are in the store, so other nodes never re-read previous layout
+     */
+    private void notifyOtherNodes(Collection<String> settingsNames) {
+        GridLayoutChangeNotifier notifier = changeNotifier;
+        if (notifier == null) return;
+        try {
+            notifier.publish(settingsNames);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while publishing grid settings changes. Setting names={}", settingsNames, e);
+        }
+    }
+
+
+    public GridSettingsStore getStore() {
+        GridSettingsStore currentStore = store;
+        if (currentStore != null) return currentStore;
+        synchronized (this) {
+            if (store == null) store = defaultStore.get();
+            return store;
+        }
+    }
+
+    /**
+     * Change target store. Layouts pending for previous store are written there first.
+     */
+    public void setStore(GridSettingsStore store) {
+        flushAll();
+        synchronized (this) {
+            this.store = store;
+        }
+    }
+
+    public GridLayoutChangeNotifier getChangeNotifier() {
+        return changeNotifier;
+    }
+
+    public void setChangeNotifier(GridLayoutChangeNotifier changeNotifier) {
+        this.changeNotifier = changeNotifier;
+    }
+
+    public long getCoalesceWindowMillis() {
+        return coalesceWindowMillis;
+    }
+
+    public void setCoalesceWindowMillis(long coalesceWindowMillis) {
+        this.coalesceWindowMillis = coalesceWindowMillis;
+    }
+
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingLayout {
+        private final GridLayout layout;
+        // Time when layout may be written: end of coalesce window or retry delay
+        private final long dueNanos;
+        private final int failedAttempts;
+    }
+}
@@ -0,0 +1,176 @@
+package org.vaadin.example.gridsettings;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+
+/**
+ * Settings store in relational database (tested with embedded H2).
+ * Each grid layout is one row, found by primary key lookup; saving is done with batched upserts.
+ */
+public class JdbcGridSettingsStore implements GridSettingsStore {
+
+    private static final String CREATE_TABLE_SQL = "" +
+            "CREATE TABLE IF NOT EXISTS GRID_SETTINGS (" +
+            "SETTINGS_NAME VARCHAR(255) NOT NULL PRIMARY KEY, " +
+            "LAYOUT VARBINARY NOT NULL, " +
+            "UPDATED_AT TIMESTAMP NOT NULL" +
+            ")";
+    // Recent layouts are listed by saving time
+    private static final String CREATE_UPDATED_AT_INDEX_SQL = "CREATE INDEX IF NOT EXISTS GRID_SETTINGS_UPDATED_AT ON GRID_SETTINGS (UPDATED_AT)";
+    private static final String SELECT_ANY_SQL = "SELECT 1 FROM GRID_SETTINGS LIMIT 1";
+    private static final String SELECT_SQL = "SELECT LAYOUT FROM GRID_SETTINGS WHERE SETTINGS_NAME = ?";
+    private static final String SELECT_NAMES_SQL = "SELECT SETTINGS_NAME FROM GRID_SETTINGS WHERE SETTINGS_NAME LIKE ? ESCAPE '\\'";
+    private static final String SELECT_RECENT_NAMES_SQL = "SELECT SETTINGS_NAME FROM GRID_SETTINGS ORDER BY UPDATED_AT DESC LIMIT ?";
+    private static final String UPSERT_SQL = "MERGE INTO GRID_SETTINGS (SETTINGS_NAME, LAYOUT, UPDATED_AT) KEY (SETTINGS_NAME) VALUES (?, ?, ?)";
+
+    private final DataSource dataSource;
+
+
+    /**
+     * Constructor. Settings table and its indexes are created if they do not exist.
+     */
+    public JdbcGridSettingsStore(DataSource dataSource) throws IOException {
+        this.dataSource = dataSource;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE_SQL);
+            statement.execute(CREATE_UPDATED_AT_INDEX_SQL);
+        } catch (SQLException e) {
+            throw new IOException("Error while creating grid settings table", e);
+        }
+    }
+
+
+    /**
+     * One-shot migration from another store (settings folder): all its layouts are copied by batches,
+     * but only if settings table is empty, so it is done on first start only.
+     *
+     * @return count of imported layouts
+     */
+    public int importIfEmpty(GridSettingsStore source, int batchSize) throws IOException {
+        if (!isEmpty()) return 0;
+        int count = 0;
+        Map<String, GridLayout> batch = new LinkedHashMap<>();
+        for (String settingsName : source.getSettingsNames("")) {
+            Optional<GridLayout> layout = source.load(settingsName);
+            if (!layout.isPresent()) continue;
+            batch.put(settingsName, layout.get());
+            if (batch.size() >= batchSize) {
+                saveAll(batch);
+                count += batch.size();
+                batch.clear();
+            }
+        }
+        saveAll(batch);
+        return count + batch.size();
+    }
+
+    private boolean isEmpty() throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ANY_SQL)) {
+            return !resultSet.next();
+        } catch (SQLException e) {
+            throw new IOException("Error while reading grid settings table", e);
+        }
+    }
+
+
+    @Override
+    public Optional<GridLayout> load(String settingsName) throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_SQL)) {
+            statement.setString(1, settingsName);
+            byte[] bytes;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) return Optional.empty();
+                bytes = resultSet.getBytes(1);
+            }
+            GridLayout layout = GridLayoutCodec.decode(bytes);
+            // Row of legacy text format is rewritten in current format
+            if (GridLayoutCodec.isLegacyFormat(bytes)) save(settingsName, layout);
+            return Optional.of(layout);
+        } catch (SQLException e) {
+            throw new IOException("Error while loading grid settings " + settingsName, e);
+        }
+    }
+
+
+    @Override
+    public List<String> getSettingsNames(String prefix) throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_NAMES_SQL)) {
+            statement.setString(1, prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            List<String> settingsNames = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) settingsNames.add(resultSet.getString(1));
+            }
+            return settingsNames;
+        } catch (SQLException e) {
+            throw new IOException("Error while listing grid settings " + prefix, e);
+        }
+    }
+
+
+    @Override
+    public List<String> getRecentSettingsNames(int limit) throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_RECENT_NAMES_SQL)) {
+            statement.setInt(1, limit);
+            List<String> settingsNames = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) settingsNames.add(resultSet.getString(1));
+            }
+            return settingsNames;
+        } catch (SQLException e) {
+            throw new IOException("Error while listing recent grid settings", e);
+        }
+    }
+
+
+    @Override
+    public void save(String settingsName, GridLayout layout) throws IOException {
+        saveAll(Collections.singletonMap(settingsName, layout));
+    }
+
+
+    @Override
+    public void saveAll(Map<String, GridLayout> layouts) throws IOException {
+        if (layouts.isEmpty()) return;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (Map.Entry<String, GridLayout> entry : layouts.entrySet()) {
+                    statement.setString(1, entry.getKey());
+                    statement.setBytes(2, GridLayoutCodec.encode(entry.getValue()));
+                    statement.setTimestamp(3, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Error while saving grid settings " + layouts.keySet(), e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.vaadin.example.gridsettings;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Index of sharded settings folder: names of all stored layouts and their shards,
+ * so layouts can be listed without walking the folder tree.
+ * Append-only file of records "name length (varint) | name (UTF-8) | shard (2 bytes)", record is appended
+ * when layout is saved first time. Truncated last record (crash while appending) is cut off on load,
+ * so later records are appended after the last complete one.
+ */
+@Slf4j
+class SettingsFolderIndex {
+
+    private final Path indexFile;
+    // Map SETTINGS NAME => shard
+    private final Map<String, Integer> shards = new ConcurrentHashMap<>();
+
+
+    SettingsFolderIndex(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+
+    /**
+     * Read index file, truncated last record is removed from the file
+     *
+     * @throws IOException if index is malformed (it must be rebuilt) or can't be read
+     */
+    void load() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        // End of the last complete record
+        int recordEnd = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                int length = readVarInt(buffer);
+                if (length > buffer.remaining()) throw new BufferUnderflowException();
+                String settingsName = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                shards.put(settingsName, buffer.getShort() & 0xFFFF);
+                recordEnd = buffer.position();
+            }
+        } catch (BufferUnderflowException e) {
+            log.warn("Grid settings index has truncated last record, it is removed. Index length={}, valid length={}",
+                    buffer.limit(), recordEnd);
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+                channel.truncate(recordEnd);
+            }
+        }
+    }
+
+
+    boolean exists() {
+        return Files.exists(indexFile);
+    }
+
+    Set<String> getNames() {
+        return Collections.unmodifiableSet(shards.keySet());
+    }
+
+
+    /**
+     * Add layout to index, if it is not there yet
+     */
+    void add(String settingsName, int shard) throws IOException {
+        if (shards.containsKey(settingsName)) return;
+        synchronized (this) {
+            if (shards.containsKey(settingsName)) return;
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            writeRecord(record, settingsName, shard);
+            Files.write(indexFile, record.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            shards.put(settingsName, shard);
+        }
+    }
+
+
+    /**
+     * Rewrite index with given layouts (index is lost or folder was changed by hand)
+     */
+    synchronized void rebuild(Map<String, Integer> layoutShards) throws IOException {
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        layoutShards.forEach((settingsName, shard) -> writeRecord(records, settingsName, shard));
+        Path temp = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), FileGridSettingsStore.TEMP_FILE_SUFFIX);
+        try {
+            Files.write(temp, records.toByteArray());
+            try {
+                Files.move(temp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        shards.clear();
+        shards.putAll(layoutShards);
+    }
+
+
+    private static void writeRecord(ByteArrayOutputStream output, String settingsName, int shard) {
+        byte[] name = settingsName.getBytes(StandardCharsets.UTF_8);
+        int length = name.length;
+        while ((length & ~0x7F) != 0) {
+            output.write((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        output.write(length);
+        output.write(name, 0, name.length);
+        output.write(shard >>> 8);
+        output.write(shard & 0xFF);
+    }
+
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) break;
+                return value;
+            }
+        }
+        throw new IOException("Malformed grid settings index");
+    }
+}
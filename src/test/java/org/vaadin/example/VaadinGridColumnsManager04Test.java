@@ -0,0 +1,293 @@
+package org.vaadin.example;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.grid.Grid;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.vaadin.example.gridsettings.ColumnSettings;
+import org.vaadin.example.gridsettings.GridLayout;
+import org.vaadin.example.gridsettings.GridSettings;
+import org.vaadin.example.gridsettings.GridSettingsStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class VaadinGridColumnsManager04Test {
+
+    private static final String COLUMNS_MANAGER = "#COLUMNS_MANAGER#";
+
+    @Rule
+    public TestName testName = new TestName();
+
+    // Current UI is weakly referenced by Vaadin
+    private UI ui;
+    private Grid<Integer> grid;
+    private VaadinGridColumnsManager04<Integer> manager;
+
+
+    @BeforeClass
+    public static void setInMemoryStore() {
+        GridSettings.setStore(new InMemorySettingsStore());
+    }
+
+    @Before
+    public void createManager() {
+        // Manager shows notifications
+        ui = new UI();
+        UI.setCurrent(ui);
+        grid = new Grid<>();
+        // Grid id is unique per test, settings are shared by application
+        manager = new VaadinGridColumnsManager04<>(grid, testName.getMethodName());
+        for (String key : Arrays.asList("A", "B", "C")) {
+            manager.registerColumn(key, "Column " + key, () -> grid.addColumn(row -> key + row).setWidth("100px"));
+        }
+    }
+
+    @After
+    public void clearCurrentUi() {
+        UI.setCurrent(null);
+    }
+
+
+    @Test
+    public void oneAndAllButtonsChangeVisibility() {
+        manager.initialize();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "B", "C"), getGridColumnKeys());
+
+        findButton("One").click();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A"), getGridColumnKeys());
+        Assert.assertFalse(manager.getActualColumnsMap().get("C").isVisible());
+
+        findButton("All").click();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "B", "C"), getGridColumnKeys());
+        Assert.assertTrue(manager.getActualColumnsMap().get("C").isVisible());
+    }
+
+
+    @Test
+    public void hiddenColumnIsNotCreated() {
+        GridSettings.save("v4_" + testName.getMethodName(), new GridLayout(Arrays.asList(
+                new ColumnSettings("A", true, "100px"),
+                new ColumnSettings("B", true, "100px"),
+                new ColumnSettings("D", false, "100px"))));
+        int[] createdCount = {0};
+        manager.registerColumn("D", "Column D", () -> {
+            createdCount[0]++;
+            return grid.addColumn(row -> "D" + row);
+        });
+        manager.initialize();
+        Assert.assertEquals(0, createdCount[0]);
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "B", "C"), getGridColumnKeys());
+
+        manager.beginUpdate().setVisible("D", true).commit();
+        Assert.assertEquals(1, createdCount[0]);
+        // Column not in saved layout (C) follows saved ones
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "B", "D", "C"), getGridColumnKeys());
+    }
+
+
+    @Test
+    public void frozenColumnsAreFirst() {
+        // Declared frozen, hidden
+        manager.registerColumn("D", new Text("Column D"), true, true, true,
+                () -> grid.addColumn(row -> "D" + row).setFrozen(true));
+        // Frozen by creation code only
+        manager.registerColumn("E", "Column E", () -> grid.addColumn(row -> "E" + row).setFrozen(true));
+        GridSettings.save("v4_" + testName.getMethodName(), new GridLayout(Arrays.asList(
+                new ColumnSettings("A", true, "100px"),
+                new ColumnSettings("B", true, "100px"),
+                new ColumnSettings("C", true, "100px"),
+                new ColumnSettings("D", false, "100px"),
+                new ColumnSettings("E", true, "100px"))));
+        manager.initialize();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "D", "E", "A", "B", "C"), new ArrayList<>(manager.getActualColumnsMap().keySet()));
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "E", "A", "B", "C"), getGridColumnKeys());
+        Assert.assertTrue(manager.getActualColumnsMap().get("E").getDefinition().isFrozen());
+    }
+
+
+    @Test
+    public void onlyChangedColumnsAreReconciled() {
+        manager.initialize();
+        Grid.Column<Integer> columnA = grid.getColumnByKey("A");
+        Grid.Column<Integer> columnC = grid.getColumnByKey("C");
+
+        manager.beginUpdate().setVisible("B", false).commit();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "C"), getGridColumnKeys());
+        Assert.assertSame(columnA, grid.getColumnByKey("A"));
+        Assert.assertSame(columnC, grid.getColumnByKey("C"));
+
+        manager.beginUpdate().setOrder(Arrays.asList("C", "A")).setWidth("A", "150px").commit();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "C", "A"), getGridColumnKeys());
+        Assert.assertSame(columnA, grid.getColumnByKey("A"));
+        Assert.assertEquals("150px", columnA.getWidth());
+        Assert.assertEquals("100px", columnC.getWidth());
+
+        // Column order from client is taken as it is
+        manager.applyClientColumnOrder(Arrays.asList(COLUMNS_MANAGER, "A", "C"));
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "C", "B"), new ArrayList<>(manager.getActualColumnsMap().keySet()));
+        Assert.assertSame(columnC, grid.getColumnByKey("C"));
+    }
+
+
+    @Test
+    public void menuIsBuiltOnFirstOpeningAndReordered() {
+        manager.initialize();
+        Assert.assertTrue(getMenuCheckboxes().isEmpty());
+
+        setMenuOpened(true);
+        List<Checkbox> checkboxes = getMenuCheckboxes();
+        Assert.assertEquals(Arrays.asList("Column A", "Column B", "Column C"), getLabels(checkboxes));
+
+        manager.beginUpdate().setOrder(Arrays.asList("C", "A", "B")).commit();
+        List<Checkbox> reordered = getMenuCheckboxes();
+        Assert.assertEquals(Arrays.asList("Column C", "Column A", "Column B"), getLabels(reordered));
+        // Checkboxes are moved, not recreated
+        Assert.assertSame(checkboxes.get(2), reordered.get(0));
+        Assert.assertSame(checkboxes.get(0), reordered.get(1));
+
+        // Column hidden by checkbox is removed when menu is closed
+        reordered.get(1).setValue(false);
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "C", "A", "B"), getGridColumnKeys());
+        setMenuOpened(false);
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "C", "B"), getGridColumnKeys());
+    }
+
+
+    @Test
+    public void layoutUpdateIsAppliedOnCommit() throws IOException {
+        manager.initialize();
+        VaadinGridColumnsManager04<Integer>.LayoutUpdate layoutUpdate = manager.beginUpdate()
+                .setVisible("A", false)
+                .setWidth("B", "50px")
+                .setOrder(Arrays.asList("C", "B"));
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "B", "C"), getGridColumnKeys());
+
+        layoutUpdate.commit();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "C", "B"), getGridColumnKeys());
+        Assert.assertEquals("50px", grid.getColumnByKey("B").getWidth());
+        GridLayout savedLayout = GridSettings.load("v4_" + testName.getMethodName()).get();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "C", "B", "A"), savedLayout.getColumns().stream()
+                .map(ColumnSettings::getKey).collect(Collectors.toList()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void layoutUpdateIsCommittedOnce() {
+        manager.initialize();
+        VaadinGridColumnsManager04<Integer>.LayoutUpdate layoutUpdate = manager.beginUpdate().setVisible("A", false);
+        layoutUpdate.commit();
+        layoutUpdate.commit();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void layoutUpdateRejectsColumnsManagerColumn() {
+        manager.beginUpdate().setVisible(COLUMNS_MANAGER, false);
+    }
+
+
+    @Test
+    public void layoutChangesAreUndoneAndRedone() throws IOException {
+        manager.initialize();
+        Button undo = findButton("Undo");
+        Button redo = findButton("Redo");
+        Assert.assertFalse(undo.isEnabled());
+
+        manager.beginUpdate().setVisible("B", false).commit();
+        manager.beginUpdate().setWidth("A", "150px").commit();
+        Assert.assertTrue(undo.isEnabled());
+        Assert.assertFalse(redo.isEnabled());
+
+        undo.click();
+        Assert.assertEquals("100px", grid.getColumnByKey("A").getWidth());
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "C"), getGridColumnKeys());
+        undo.click();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "B", "C"), getGridColumnKeys());
+        Assert.assertFalse(undo.isEnabled());
+
+        redo.click();
+        redo.click();
+        Assert.assertEquals(Arrays.asList(COLUMNS_MANAGER, "A", "C"), getGridColumnKeys());
+        Assert.assertEquals("150px", grid.getColumnByKey("A").getWidth());
+        Assert.assertFalse(redo.isEnabled());
+        // Restored layout is saved
+        Assert.assertEquals("150px", GridSettings.load("v4_" + testName.getMethodName()).get().getColumns().stream()
+                .filter(column -> column.getKey().equals("A")).findFirst().get().getWidth());
+    }
+
+
+    private List<String> getGridColumnKeys() {
+        return grid.getColumns().stream().map(Grid.Column::getKey).collect(Collectors.toList());
+    }
+
+    private Button findButton(String text) {
+        return descendants(manager.getManagerContextMenu())
+                .filter(component -> component instanceof Button && text.equals(((Button) component).getText()))
+                .map(Button.class::cast)
+                .findFirst().orElseThrow(() -> new AssertionError("Button not found: " + text));
+    }
+
+    private List<Checkbox> getMenuCheckboxes() {
+        return descendants(manager.getManagerContextMenu())
+                .filter(component -> component instanceof Checkbox)
+                .map(Checkbox.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> getLabels(List<Checkbox> checkboxes) {
+        return checkboxes.stream().map(Checkbox::getLabel).collect(Collectors.toList());
+    }
+
+    /**
+     * Opening or closing of menu as it is done by client
+     */
+    private void setMenuOpened(boolean opened) {
+        manager.getManagerContextMenu().getElement().setProperty("opened", opened);
+    }
+
+    private static Stream<Component> descendants(Component component) {
+        return component.getChildren().flatMap(child -> Stream.concat(Stream.of(child), descendants(child)));
+    }
+
+
+    /**
+     * Settings are kept in memory, so tests don't touch settings folder
+     */
+    private static class InMemorySettingsStore implements GridSettingsStore {
+
+        private final Map<String, GridLayout> layouts = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<GridLayout> load(String settingsName) {
+            return Optional.ofNullable(layouts.get(settingsName));
+        }
+
+        @Override
+        public void save(String settingsName, GridLayout layout) {
+            layouts.put(settingsName, layout);
+        }
+
+        @Override
+        public List<String> getSettingsNames(String prefix) {
+            return layouts.keySet().stream()
+                    .filter(settingsName -> settingsName.startsWith(prefix))
+                    .collect(Collectors.toList());
+        }
+    }
+}
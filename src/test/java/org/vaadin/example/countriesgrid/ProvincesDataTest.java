@@ -0,0 +1,74 @@
+package org.vaadin.example.countriesgrid;
+
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.shared.Registration;
+import org.junit.Assert;
+import org.junit.Test;
+import org.vaadin.example.griddata.PagedBackend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+public class ProvincesDataTest {
+
+    @Test
+    public void lazyBackendsKnowColumnsWithoutGrid() {
+        for (ProvincesGrid.DataMode dataMode : Arrays.asList(ProvincesGrid.DataMode.LAZY, ProvincesGrid.DataMode.COLUMNAR)) {
+            PagedBackend<ProvinceEntity> backend = new ProvincesData(dataMode).getVersion().getBackend();
+            Map<String, String> filters = Collections.singletonMap("PROVINCE_NAME_FILTER", "we");
+            Assert.assertEquals(1, backend.count(filters));
+            Assert.assertArrayEquals(new int[]{2}, backend.filterRowIds(filters));
+
+            List<QuerySortOrder> sortOrders = Collections.singletonList(new QuerySortOrder("AREA", SortDirection.DESCENDING));
+            Assert.assertEquals(Arrays.asList("East Java", "West Java", "Central Java"), getNames(backend.fetch(0, 3, sortOrders, Collections.emptyMap())));
+            Assert.assertEquals(Arrays.asList("Yogyakarta", "DKI Jakarta"), getNames(backend.fetch(5, 10, sortOrders, Collections.emptyMap())));
+            Assert.assertEquals(47_799.75, backend.getColumnValues("AREA").apply(5));
+        }
+    }
+
+    @Test
+    public void inMemoryModeHasNoBackend() {
+        ProvincesData data = new ProvincesData(ProvincesGrid.DataMode.IN_MEMORY);
+        Assert.assertNull(data.getVersion().getBackend());
+        Assert.assertEquals(7, data.getVersion().getRows().size());
+    }
+
+    @Test
+    public void rowChangesCreateVersions() {
+        ProvincesData data = new ProvincesData(ProvincesGrid.DataMode.COLUMNAR);
+        List<ProvincesData.RowChange> changes = new ArrayList<>();
+        Registration registration = data.addRowChangeListener(changes::add);
+        ProvincesData.Version first = data.getVersion();
+
+        data.addRow(1, new ProvinceEntity("Lampung", "Bandar Lampung", 33_575.41, 0.0, 6_741_439, 7_608_405, 9_007_848, 9_081_792, 270));
+        data.removeRow(0);
+        Assert.assertEquals(2, changes.size());
+        Assert.assertSame(first, changes.get(0).getPrevious());
+        Assert.assertTrue(changes.get(0).isAdded());
+        Assert.assertSame(changes.get(0).getCurrent(), changes.get(1).getPrevious());
+        Assert.assertFalse(changes.get(1).isAdded());
+        Assert.assertEquals(0, changes.get(1).getRowId());
+        Assert.assertSame(data.getVersion(), changes.get(1).getCurrent());
+
+        // Shown versions are not changed
+        Assert.assertEquals(7, first.getRows().size());
+        Assert.assertEquals("Banten", first.getBackend().fetch(0, 1, Collections.emptyList(), Collections.emptyMap()).get(0).getProvinceName());
+        Assert.assertEquals(Arrays.asList("Lampung", "DKI Jakarta"), getNames(data.getVersion().getBackend().fetch(0, 2, Collections.emptyList(), Collections.emptyMap())));
+        Assert.assertEquals(2L, data.getVersion().getNumber());
+
+        registration.remove();
+        data.removeRow(0);
+        Assert.assertEquals(2, changes.size());
+    }
+
+
+    private static List<String> getNames(List<ProvinceEntity> rows) {
+        return rows.stream().map(ProvinceEntity::getProvinceName).collect(Collectors.toList());
+    }
+}
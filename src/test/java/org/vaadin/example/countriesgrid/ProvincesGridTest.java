@@ -0,0 +1,167 @@
+package org.vaadin.example.countriesgrid;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.server.DefaultDeploymentConfiguration;
+import com.vaadin.flow.server.VaadinServletService;
+import com.vaadin.flow.server.VaadinSession;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.vaadin.example.gridaggregate.Aggregate;
+import org.vaadin.example.gridaggregate.GridAggregates;
+import org.vaadin.example.gridsettings.GridLayout;
+import org.vaadin.example.gridsettings.GridSettings;
+import org.vaadin.example.gridsettings.GridSettingsStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+public class ProvincesGridTest {
+
+    private static final double DELTA = 1e-6;
+
+    private VaadinServletService service;
+    private VaadinSession session;
+    // Current UI is weakly referenced by Vaadin
+    private UI ui;
+
+
+    @BeforeClass
+    public static void setInMemoryStore() {
+        GridSettings.setStore(new InMemorySettingsStore());
+    }
+
+    @Before
+    public void createUi() throws Exception {
+        service = new VaadinServletService(null, new DefaultDeploymentConfiguration(ProvincesGridTest.class, new Properties()));
+        session = new LockedSession(service);
+        session.lock();
+        ui = new UI();
+        ui.getInternals().setSession(session);
+        UI.setCurrent(ui);
+    }
+
+    @After
+    public void clearCurrentUi() {
+        UI.setCurrent(null);
+        session.unlock();
+    }
+
+
+    @Test
+    public void rowChangesAreAppliedToAggregates() {
+        for (ProvincesGrid.DataMode dataMode : ProvincesGrid.DataMode.values()) {
+            ProvincesGrid provincesGrid = new ProvincesGrid(dataMode);
+            ui.add(provincesGrid.getComponent());
+            GridAggregates aggregates = ComponentUtil.getData(provincesGrid.getComponent(), GridAggregates.class);
+            double allArea = aggregates.getValue("AREA", Aggregate.SUM);
+            // Banten
+            provincesGrid.setFilter("PROVINCE_NAME_FILTER", "ba");
+            double filteredArea = aggregates.getValue("AREA", Aggregate.SUM);
+            Assert.assertEquals(dataMode.name(), 9_662.92, filteredArea, DELTA);
+
+            // Not in view
+            provincesGrid.addRow(0, province("Jambi", 50_160.05));
+            runAccessTasks();
+            Assert.assertEquals(filteredArea, aggregates.getValue("AREA", Aggregate.SUM), DELTA);
+            provincesGrid.addRow(0, province("Bali", 5_780.06));
+            runAccessTasks();
+            Assert.assertEquals(filteredArea + 5_780.06, aggregates.getValue("AREA", Aggregate.SUM), DELTA);
+            Assert.assertEquals(2, provincesGrid.getComponent().getDataProvider().size(new Query<>()));
+            // Jambi
+            provincesGrid.removeRow(1);
+            runAccessTasks();
+            Assert.assertEquals(filteredArea + 5_780.06, aggregates.getValue("AREA", Aggregate.SUM), DELTA);
+
+            provincesGrid.setFilter("PROVINCE_NAME_FILTER", "");
+            Assert.assertEquals(allArea + 5_780.06, aggregates.getValue("AREA", Aggregate.SUM), DELTA);
+
+            // Changed while detached, aggregates are recomputed on attach
+            ui.remove(provincesGrid.getComponent());
+            provincesGrid.removeRow(0);
+            runAccessTasks();
+            ui.add(provincesGrid.getComponent());
+            Assert.assertEquals(allArea, aggregates.getValue("AREA", Aggregate.SUM), DELTA);
+            Assert.assertEquals(7, provincesGrid.getComponent().getDataProvider().size(new Query<>()));
+            ui.remove(provincesGrid.getComponent());
+        }
+    }
+
+
+    private void runAccessTasks() {
+        service.runPendingAccessTasks(session);
+    }
+
+    private static ProvinceEntity province(String provinceName, double area) {
+        return new ProvinceEntity(provinceName, "–", area, 0.0, 1, 1, 1, 1, 1);
+    }
+
+
+    /**
+     * Session locked by test thread, tasks of {@link UI#access} are run by test
+     */
+    private static class LockedSession extends VaadinSession {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private LockedSession(VaadinServletService service) {
+            super(service);
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+
+        @Override
+        public boolean hasLock() {
+            return lock.isHeldByCurrentThread();
+        }
+
+        @Override
+        public void lock() {
+            lock.lock();
+        }
+
+        @Override
+        public void unlock() {
+            lock.unlock();
+        }
+    }
+
+
+    private static class InMemorySettingsStore implements GridSettingsStore {
+
+        private final Map<String, GridLayout> layouts = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<GridLayout> load(String settingsName) {
+            return Optional.ofNullable(layouts.get(settingsName));
+        }
+
+        @Override
+        public void save(String settingsName, GridLayout layout) {
+            layouts.put(settingsName, layout);
+        }
+
+        @Override
+        public List<String> getSettingsNames(String prefix) {
+            List<String> settingsNames = new ArrayList<>();
+            layouts.keySet().forEach(settingsName -> {
+                if (settingsName.startsWith(prefix)) settingsNames.add(settingsName);
+            });
+            return settingsNames;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.vaadin.example.gridaggregate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+
+public class GridAggregatesTest {
+
+    private static final Integer[] VALUES = {10, null, 30, 40, 5, 60};
+
+    private GridAggregates aggregates;
+
+
+    @Before
+    public void createAggregates() {
+        aggregates = new GridAggregates(VALUES.length);
+        aggregates.addColumn("VALUE", row -> VALUES[row], Aggregate.SUM, Aggregate.AVG, Aggregate.MIN, Aggregate.MAX, Aggregate.COUNT);
+    }
+
+
+    @Test
+    public void allRowsAreAggregated() {
+        assertAggregates(145, 5, 5, 60);
+        Assert.assertNotNull(aggregates.getFooter("VALUE"));
+        Assert.assertNull(aggregates.getFooter("OTHER"));
+    }
+
+    @Test
+    public void viewChangesAreApplied() {
+        aggregates.setView(new int[]{0, 1, 2});
+        assertAggregates(40, 2, 10, 30);
+        // Small change of view, rows are added and subtracted
+        aggregates.setView(new int[]{0, 2, 3});
+        assertAggregates(80, 3, 10, 40);
+        aggregates.setView(new BitSet());
+        assertAggregates(null, 0, null, null);
+        aggregates.setView((BitSet) null);
+        assertAggregates(145, 5, 5, 60);
+    }
+
+    @Test
+    public void viewIsNotChanged() {
+        BitSet view = new BitSet();
+        view.set(3);
+        view.set(5);
+        aggregates.setView(view);
+        assertAggregates(100, 2, 40, 60);
+        Assert.assertEquals(2, view.cardinality());
+        Assert.assertTrue(view.get(3) && view.get(5));
+    }
+
+    @Test
+    public void addedAndRemovedRowsAreApplied() {
+        List<Integer> values = new ArrayList<>(Arrays.asList(VALUES));
+        aggregates = new GridAggregates(values.size());
+        aggregates.addColumn("VALUE", values::get, Aggregate.SUM, Aggregate.AVG, Aggregate.MIN, Aggregate.MAX, Aggregate.COUNT);
+        // 10, 40, 60
+        aggregates.setView(new int[]{0, 3, 5});
+
+        values.add(1, 100);
+        aggregates.rowAdded(1, true);
+        assertAggregates(210, 4, 10, 100);
+        values.add(0, 1);
+        aggregates.rowAdded(0, false);
+        assertAggregates(210, 4, 10, 100);
+
+        // 1, 10, 100, null, 30, 40, 5, 60: view rows were shifted
+        aggregates.rowRemoved(5);
+        values.remove(5);
+        assertAggregates(170, 3, 10, 100);
+        aggregates.rowRemoved(4);
+        values.remove(4);
+        assertAggregates(170, 3, 10, 100);
+        aggregates.setView(new int[]{1, 5});
+        assertAggregates(70, 2, 10, 60);
+        aggregates.setView((BitSet) null);
+        assertAggregates(176, 5, 1, 100);
+    }
+
+
+    private void assertAggregates(Integer sum, int count, Integer min, Integer max) {
+        Assert.assertEquals(sum == null ? null : Double.valueOf(sum), aggregates.getValue("VALUE", Aggregate.SUM));
+        Assert.assertEquals(Double.valueOf(count), aggregates.getValue("VALUE", Aggregate.COUNT));
+        Assert.assertEquals(count == 0 ? null : Double.valueOf(sum) / count, aggregates.getValue("VALUE", Aggregate.AVG));
+        Assert.assertEquals(min == null ? null : Double.valueOf(min), aggregates.getValue("VALUE", Aggregate.MIN));
+        Assert.assertEquals(max == null ? null : Double.valueOf(max), aggregates.getValue("VALUE", Aggregate.MAX));
+    }
+}
@@ -0,0 +1,95 @@
+package org.vaadin.example.griddata;
+
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+
+public class SortPermutationsTest {
+
+    private static final int ROW_COUNT = 1_000;
+
+    private final List<Integer> numbers = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private ColumnarRowStore store;
+    private SortPermutations sortPermutations;
+
+
+    @Before
+    public void createStore() {
+        Random random = new Random(42);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            // Few distinct values, so multi-column sorts have ties
+            numbers.add(random.nextInt(10) == 0 ? null : random.nextInt(20));
+            names.add(random.nextInt(10) == 0 ? null : "name" + random.nextInt(30));
+        }
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; i++) rows.add(i);
+        store = new ColumnarRowStore(ROW_COUNT);
+        store.addColumn("NUMBER", IntColumn.of(rows, numbers::get));
+        store.addColumn("NAME", StringColumn.of(rows, names::get));
+        sortPermutations = new SortPermutations(store);
+    }
+
+
+    @Test
+    public void allRowsAreSortedByOneColumn() {
+        for (SortDirection direction : SortDirection.values()) {
+            List<QuerySortOrder> sortOrders = Collections.singletonList(new QuerySortOrder("NUMBER", direction));
+            int[] sorted = sortPermutations.sort(null, sortOrders);
+            Assert.assertArrayEquals(expected(IntStream.range(0, ROW_COUNT).toArray(), sortOrders), sorted);
+            // Cached permutation is returned
+            Assert.assertSame(sorted, sortPermutations.sort(null, sortOrders));
+        }
+    }
+
+    @Test
+    public void filteredRowsAreSortedBySeveralColumns() {
+        int[] rowIds = IntStream.range(0, ROW_COUNT).filter(row -> row % 3 != 0).toArray();
+        List<QuerySortOrder> sortOrders = Arrays.asList(
+                new QuerySortOrder("NAME", SortDirection.DESCENDING),
+                new QuerySortOrder("UNKNOWN", SortDirection.ASCENDING),
+                new QuerySortOrder("NUMBER", SortDirection.ASCENDING));
+        int[] rowIdsCopy = rowIds.clone();
+        Assert.assertArrayEquals(expected(rowIds, sortOrders), sortPermutations.sort(rowIds, sortOrders));
+        Assert.assertArrayEquals(rowIdsCopy, rowIds);
+    }
+
+    @Test
+    public void rowsAreNotSortedByUnknownColumns() {
+        int[] rowIds = {5, 3, 1};
+        Assert.assertSame(rowIds, sortPermutations.sort(rowIds, Collections.singletonList(new QuerySortOrder("UNKNOWN", SortDirection.ASCENDING))));
+        Assert.assertNull(sortPermutations.sort(null, Collections.emptyList()));
+    }
+
+
+    /**
+     * Stable sort of boxed values, nulls first
+     */
+    private int[] expected(int[] rowIds, List<QuerySortOrder> sortOrders) {
+        Comparator<Integer> comparator = (row1, row2) -> 0;
+        for (QuerySortOrder sortOrder : sortOrders) {
+            Comparator<Integer> columnComparator;
+            if (sortOrder.getSorted().equals("NUMBER")) {
+                columnComparator = Comparator.comparing(numbers::get, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()));
+            } else if (sortOrder.getSorted().equals("NAME")) {
+                columnComparator = Comparator.comparing(names::get, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+            } else {
+                continue;
+            }
+            comparator = comparator.thenComparing(sortOrder.getDirection() == SortDirection.DESCENDING
+                    ? columnComparator.reversed() : columnComparator);
+        }
+        return IntStream.of(rowIds).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+    }
+}
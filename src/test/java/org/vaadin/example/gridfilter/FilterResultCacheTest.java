@@ -0,0 +1,61 @@
+package org.vaadin.example.gridfilter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+public class FilterResultCacheTest {
+
+    private final FilterResultCache cache = new FilterResultCache();
+    // Candidates passed to filtering, null for full scan
+    private final List<int[]> candidates = new ArrayList<>();
+
+
+    @Test
+    public void extendedPrefixFiltersCachedResult() {
+        int[] javaRows = getRows(Collections.singletonMap("NAME", "Ja"), new int[]{1, 3, 5});
+        Assert.assertNull(candidates.get(0));
+
+        getRows(Collections.singletonMap("NAME", "jav"), new int[]{3});
+        Assert.assertSame(javaRows, candidates.get(1));
+
+        // Added filter narrows the same result
+        Map<String, String> filters = new HashMap<>();
+        filters.put("NAME", "JA");
+        filters.put("CAPITAL", "S");
+        getRows(filters, new int[]{5});
+        Assert.assertSame(javaRows, candidates.get(2));
+    }
+
+    @Test
+    public void shortenedPrefixScansAllRows() {
+        getRows(Collections.singletonMap("NAME", "Jav"), new int[]{3});
+        getRows(Collections.singletonMap("NAME", "Ja"), new int[]{1, 3, 5});
+        Assert.assertNull(candidates.get(1));
+    }
+
+    @Test
+    public void cachedResultIsReturnedWithoutFiltering() {
+        int[] rows = getRows(Collections.singletonMap("NAME", "Ja"), new int[]{1, 3, 5});
+        Assert.assertSame(rows, getRows(Collections.singletonMap("NAME", "JA"), new int[0]));
+        Assert.assertEquals(1, candidates.size());
+
+        cache.invalidate();
+        getRows(Collections.singletonMap("NAME", "Ja"), new int[]{1, 3, 5});
+        Assert.assertEquals(2, candidates.size());
+    }
+
+
+    private int[] getRows(Map<String, String> filters, int[] result) {
+        return cache.getRows(filters, candidateRowIds -> {
+            candidates.add(candidateRowIds);
+            return result;
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package org.vaadin.example.gridfilter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class PrefixFiltersTest {
+
+    @Test
+    public void activeFiltersAreCombined() {
+        List<String[]> rows = new ArrayList<>(Arrays.asList(
+                new String[]{"West Java", "Bandung"},
+                new String[]{"Banten", "Serang"},
+                new String[]{"East Java", "Surabaya"},
+                new String[]{"Bali", "Denpasar"},
+                new String[]{"Bengkulu", null}));
+        PrefixFilters<String[]> prefixFilters = new PrefixFilters<>(rows);
+        prefixFilters.addColumn("NAME", row -> row[0]);
+        prefixFilters.addColumn("CAPITAL", row -> row[1]);
+        Assert.assertNull(prefixFilters.getMatchingRowIds());
+
+        prefixFilters.setPrefix("NAME", "b");
+        Assert.assertArrayEquals(new int[]{1, 3, 4}, prefixFilters.getMatchingRowIds());
+        prefixFilters.setPrefix("CAPITAL", "s");
+        Assert.assertArrayEquals(new int[]{1}, prefixFilters.getMatchingRowIds());
+        prefixFilters.setPrefix("NAME", " ");
+        Assert.assertArrayEquals(new int[]{1, 2}, prefixFilters.getMatchingRowIds());
+
+        rows.add(0, new String[]{"Jambi", "Sungai Penuh"});
+        prefixFilters.invalidate();
+        Assert.assertArrayEquals(new int[]{0, 2, 3}, prefixFilters.getMatchingRowIds());
+        prefixFilters.setPrefix("CAPITAL", null);
+        Assert.assertNull(prefixFilters.getMatchingRowIds());
+    }
+}
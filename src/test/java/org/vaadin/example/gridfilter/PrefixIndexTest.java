@@ -0,0 +1,33 @@
+package org.vaadin.example.gridfilter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+
+public class PrefixIndexTest {
+
+    private static final List<String> VALUES = Arrays.asList("West Java", "Banten", "East Java", "java", null, "Jakarta", "Bali");
+
+
+    @Test
+    public void rowsWithPrefixAreFoundIgnoringCase() {
+        PrefixIndex<String> index = new PrefixIndex<>(VALUES, value -> value);
+        Assert.assertEquals(rows(3, 5), index.rowsWithPrefix("JA"));
+        Assert.assertEquals(rows(3), index.rowsWithPrefix("jav"));
+        Assert.assertEquals(rows(1, 6), index.rowsWithPrefix("Ba"));
+        Assert.assertEquals(rows(), index.rowsWithPrefix("Java Island"));
+        Assert.assertEquals(VALUES.size(), index.rowsWithPrefix("").cardinality());
+        Assert.assertEquals(VALUES.size(), index.getRowCount());
+    }
+
+
+    private static BitSet rows(int... rowIds) {
+        BitSet rows = new BitSet();
+        for (int rowId : rowIds) rows.set(rowId);
+        return rows;
+    }
+}
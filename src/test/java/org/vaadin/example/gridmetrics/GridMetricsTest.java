@@ -0,0 +1,16 @@
+package org.vaadin.example.gridmetrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class GridMetricsTest {
+
+    @Test
+    public void gridIdIsTakenFromSettingsName() {
+        Assert.assertEquals("ProvincesGrid", GridMetrics.gridIdOf("v4_ProvincesGrid"));
+        Assert.assertEquals("ProvincesGrid", GridMetrics.gridIdOf("v4_ProvincesGrid_user1_42"));
+        Assert.assertEquals("", GridMetrics.gridIdOf("v4_"));
+        Assert.assertEquals("Grid", GridMetrics.gridIdOf("Grid"));
+    }
+}
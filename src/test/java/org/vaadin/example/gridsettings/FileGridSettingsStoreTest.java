@@ -0,0 +1,111 @@
+package org.vaadin.example.gridsettings;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class FileGridSettingsStoreTest {
+
+    private static final GridLayout LAYOUT = new GridLayout(Arrays.asList(
+            new ColumnSettings("A", true, "100px"),
+            new ColumnSettings("B", false, null)));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    @Test
+    public void changesSavedToJournalAreLoadedByNewStore() throws IOException {
+        Path settingsFolder = folder.getRoot().toPath();
+        FileGridSettingsStore store = new FileGridSettingsStore(settingsFolder);
+        GridLayout layout = LAYOUT;
+        store.save("v4_Grid", layout);
+        for (int i = 0; i < FileGridSettingsStore.COMPACTION_RECORD_COUNT + 5; i++) {
+            layout = new GridLayout(Arrays.asList(
+                    new ColumnSettings("A", true, (100 + i) + "px"),
+                    new ColumnSettings("B", i % 2 == 0, null)));
+            store.save("v4_Grid", layout);
+        }
+        Assert.assertEquals(Optional.of(layout), new FileGridSettingsStore(settingsFolder).load("v4_Grid"));
+        Assert.assertFalse(store.isExternallyModified("v4_Grid"));
+        Assert.assertEquals(Optional.empty(), store.loadIfExternallyModified("v4_Grid"));
+
+        // Restored from backup
+        byte[] restoredSnapshot = GridLayoutCodec.encode(LAYOUT);
+        Files.write(findFile(settingsFolder, "v4_Grid"), restoredSnapshot);
+        Assert.assertTrue(store.isExternallyModified("v4_Grid"));
+        Assert.assertEquals(Optional.of(LAYOUT), store.loadIfExternallyModified("v4_Grid"));
+        Assert.assertFalse(store.isExternallyModified("v4_Grid"));
+    }
+
+
+    @Test
+    public void lostIndexIsRebuilt() throws IOException {
+        Path settingsFolder = folder.getRoot().toPath();
+        FileGridSettingsStore store = new FileGridSettingsStore(settingsFolder);
+        for (int i = 0; i < 100; i++) store.save("v4_Grid_" + i, LAYOUT);
+        Files.write(settingsFolder.resolve(FileGridSettingsStore.INDEX_FILE_NAME), new byte[]{(byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01});
+
+        FileGridSettingsStore reopened = new FileGridSettingsStore(settingsFolder);
+        Assert.assertEquals(100, reopened.getSettingsNames("v4_").size());
+        Assert.assertEquals(Optional.of(LAYOUT), reopened.load("v4_Grid_42"));
+    }
+
+
+    @Test
+    public void legacyLayoutIsRewrittenOnLoad() throws IOException {
+        Path settingsFolder = folder.getRoot().toPath();
+        FileGridSettingsStore store = new FileGridSettingsStore(settingsFolder);
+        store.save("v4_Grid", LAYOUT);
+        Path file = findFile(settingsFolder, "v4_Grid");
+        Files.write(file, "A/true/100px/Header A\nB/false/null/Header B\n".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(Optional.of(LAYOUT), store.load("v4_Grid"));
+        Assert.assertFalse(GridLayoutCodec.isLegacyFormat(Files.readAllBytes(file)));
+        Assert.assertEquals(Optional.of(LAYOUT), new FileGridSettingsStore(settingsFolder).load("v4_Grid"));
+    }
+
+
+    @Test
+    public void flatFolderIsMigrated() throws IOException {
+        Path settingsFolder = folder.getRoot().toPath();
+        Files.write(settingsFolder.resolve("v4_Grid"), GridLayoutCodec.encode(LAYOUT));
+
+        FileGridSettingsStore store = new FileGridSettingsStore(settingsFolder);
+        Assert.assertFalse(Files.exists(settingsFolder.resolve("v4_Grid")));
+        Assert.assertEquals(Collections.singletonList("v4_Grid"), store.getSettingsNames(""));
+        Assert.assertEquals(Optional.of(LAYOUT), store.load("v4_Grid"));
+    }
+
+
+    @Test
+    public void recentNamesAreLimited() throws IOException {
+        FileGridSettingsStore store = new FileGridSettingsStore(folder.getRoot().toPath());
+        for (int i = 0; i < 20; i++) store.save("v4_Grid_" + i, LAYOUT);
+        Assert.assertEquals(5, store.getRecentSettingsNames(5).size());
+        Assert.assertEquals(20, new HashSet<>(store.getRecentSettingsNames(100)).size());
+        Assert.assertTrue(store.getRecentSettingsNames(0).isEmpty());
+    }
+
+
+    private static Path findFile(Path settingsFolder, String settingsName) throws IOException {
+        try (Stream<Path> paths = Files.walk(settingsFolder)) {
+            return paths.filter(path -> path.getFileName().toString().equals(settingsName))
+                    .collect(Collectors.toList()).get(0);
+        }
+    }
+}
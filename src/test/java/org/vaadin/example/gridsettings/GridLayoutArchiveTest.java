@@ -0,0 +1,72 @@
+package org.vaadin.example.gridsettings;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+public class GridLayoutArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    @Test
+    public void layoutsAreReadAsWritten() throws IOException {
+        FileGridSettingsStore store = new FileGridSettingsStore(folder.newFolder("store").toPath());
+        Map<String, GridLayout> layouts = new LinkedHashMap<>();
+        for (int i = 0; i < 25; i++) {
+            GridLayout layout = new GridLayout(Arrays.asList(
+                    new ColumnSettings("A" + i, true, i + "px"),
+                    new ColumnSettings("B", false, null)));
+            layouts.put("v4_Grid_" + i, layout);
+            store.save("v4_Grid_" + i, layout);
+        }
+        store.save("v3_Grid", layouts.get("v4_Grid_0"));
+        byte[] archive = write(store, "v4_");
+
+        Map<String, GridLayout> readLayouts = new LinkedHashMap<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        int count = GridLayoutArchive.read(Channels.newChannel(new ByteArrayInputStream(archive)), "", 10, batch -> {
+            batchSizes.add(batch.size());
+            readLayouts.putAll(batch);
+        });
+        Assert.assertEquals(25, count);
+        Assert.assertEquals(Arrays.asList(10, 10, 5), batchSizes);
+        Assert.assertEquals(layouts, readLayouts);
+
+        // Prefix filters read layouts
+        Map<String, GridLayout> filteredLayouts = new LinkedHashMap<>();
+        Assert.assertEquals(11, GridLayoutArchive.read(Channels.newChannel(new ByteArrayInputStream(archive)), "v4_Grid_1", 100,
+                filteredLayouts::putAll));
+        Assert.assertEquals(layouts.get("v4_Grid_17"), filteredLayouts.get("v4_Grid_17"));
+    }
+
+
+    @Test(expected = IOException.class)
+    public void truncatedArchiveIsRejected() throws IOException {
+        FileGridSettingsStore store = new FileGridSettingsStore(folder.newFolder("store").toPath());
+        store.save("v4_Grid", new GridLayout(Arrays.asList(new ColumnSettings("A", true, "10px"))));
+        byte[] archive = write(store, "");
+        GridLayoutArchive.read(Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(archive, archive.length - 3))), "", 10,
+                batch -> Assert.fail("Batch of truncated archive"));
+    }
+
+
+    private static byte[] write(GridSettingsStore store, String prefix) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GridLayoutArchive.write(store, prefix, Channels.newChannel(output));
+        return output.toByteArray();
+    }
+}
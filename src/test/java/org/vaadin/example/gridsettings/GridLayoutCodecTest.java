@@ -0,0 +1,77 @@
+package org.vaadin.example.gridsettings;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+
+public class GridLayoutCodecTest {
+
+    private static final GridLayout LAYOUT = new GridLayout(Arrays.asList(
+            new ColumnSettings("#COLUMNS_MANAGER#", true, "40px"),
+            new ColumnSettings("PROVINCE_NAME", true, "200px"),
+            new ColumnSettings("CAPITAL", false, null),
+            new ColumnSettings("Площадь", true, "")));
+
+
+    @Test
+    public void layoutIsDecodedAsEncoded() throws IOException {
+        byte[] bytes = GridLayoutCodec.encode(LAYOUT);
+        Assert.assertFalse(GridLayoutCodec.isLegacyFormat(bytes));
+        Assert.assertEquals(LAYOUT, GridLayoutCodec.decode(bytes));
+        GridLayout empty = new GridLayout(Collections.emptyList());
+        Assert.assertEquals(empty, GridLayoutCodec.decode(GridLayoutCodec.encode(empty)));
+    }
+
+
+    @Test(expected = IOException.class)
+    public void corruptedLayoutIsRejected() throws IOException {
+        byte[] bytes = GridLayoutCodec.encode(LAYOUT);
+        bytes[bytes.length / 2] ^= 0x10;
+        GridLayoutCodec.decode(bytes);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedLayoutIsRejected() throws IOException {
+        byte[] bytes = GridLayoutCodec.encode(LAYOUT);
+        GridLayoutCodec.decode(Arrays.copyOf(bytes, 4));
+    }
+
+
+    @Test
+    public void legacyTextLayoutIsDecoded() throws IOException {
+        byte[] bytes = ("PROVINCE_NAME/true/200px/Province\n"
+                + "CAPITAL/false/null/Capital\n"
+                + "AREA/true/80px/Area/Extra\n").getBytes(StandardCharsets.UTF_8);
+        Assert.assertTrue(GridLayoutCodec.isLegacyFormat(bytes));
+        Assert.assertEquals(new GridLayout(Arrays.asList(
+                new ColumnSettings("PROVINCE_NAME", true, "200px"),
+                new ColumnSettings("CAPITAL", false, null),
+                new ColumnSettings("AREA", true, "80px"))), GridLayoutCodec.decode(bytes));
+    }
+
+
+    @Test
+    public void deltaIsDecodedAsEncoded() throws IOException {
+        GridLayout changed = new GridLayout(Arrays.asList(
+                new ColumnSettings("#COLUMNS_MANAGER#", true, "40px"),
+                new ColumnSettings("CAPITAL", true, "120px"),
+                new ColumnSettings("PROVINCE_NAME", true, "200px"),
+                new ColumnSettings("AREA", true, null)));
+        GridLayoutDelta delta = GridLayoutDelta.between(LAYOUT, changed);
+        GridLayoutDelta decoded = GridLayoutCodec.decodeDelta(GridLayoutCodec.encodeDelta(delta));
+        Assert.assertEquals(delta.getChangedColumns(), decoded.getChangedColumns());
+        Assert.assertEquals(delta.getColumnOrder(), decoded.getColumnOrder());
+        Assert.assertEquals(changed, decoded.applyTo(LAYOUT));
+    }
+
+    @Test(expected = IOException.class)
+    public void deltaWithTooLargeCountIsRejected() throws IOException {
+        // Column count 2^28, data for none
+        GridLayoutCodec.decodeDelta(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01});
+    }
+}
@@ -0,0 +1,55 @@
+package org.vaadin.example.gridsettings;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+
+public class GridLayoutHistoryTest {
+
+    @Test
+    public void layoutsAreUndoneAndRedone() {
+        GridLayoutHistory history = new GridLayoutHistory(10);
+        history.add(layout("1"));
+        history.add(layout("2"));
+        history.add(layout("2"));
+        history.add(layout("3"));
+        Assert.assertFalse(history.canRedo());
+        Assert.assertEquals(layout("2"), history.undo());
+        Assert.assertEquals(layout("1"), history.undo());
+        Assert.assertFalse(history.canUndo());
+        Assert.assertEquals(layout("2"), history.redo());
+        Assert.assertTrue(history.canRedo());
+    }
+
+    @Test
+    public void newLayoutAfterUndoDropsRedo() {
+        GridLayoutHistory history = new GridLayoutHistory(10);
+        history.add(layout("1"));
+        history.add(layout("2"));
+        history.undo();
+        history.add(layout("3"));
+        Assert.assertFalse(history.canRedo());
+        Assert.assertEquals(layout("1"), history.undo());
+    }
+
+    @Test
+    public void oldestLayoutsAreDropped() {
+        GridLayoutHistory history = new GridLayoutHistory(3);
+        for (int i = 1; i <= 5; i++) history.add(layout(Integer.toString(i)));
+        Assert.assertEquals(layout("4"), history.undo());
+        Assert.assertEquals(layout("3"), history.undo());
+        Assert.assertFalse(history.canUndo());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void undoOfEmptyHistoryFails() {
+        new GridLayoutHistory(3).undo();
+    }
+
+
+    private static GridLayout layout(String width) {
+        return new GridLayout(Collections.singletonList(new ColumnSettings("A", true, width + "px")));
+    }
+}
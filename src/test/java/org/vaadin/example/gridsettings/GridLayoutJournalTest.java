@@ -0,0 +1,58 @@
+package org.vaadin.example.gridsettings;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class GridLayoutJournalTest {
+
+    private static final long SNAPSHOT_CHECKSUM = 0xCAFEBABEL;
+    private static final GridLayout SNAPSHOT = new GridLayout(Arrays.asList(
+            new ColumnSettings("A", true, "100px"),
+            new ColumnSettings("B", true, "50px")));
+    private static final GridLayout RESIZED = new GridLayout(Arrays.asList(
+            new ColumnSettings("A", true, "120px"),
+            new ColumnSettings("B", true, "50px")));
+    private static final GridLayout REORDERED = new GridLayout(Arrays.asList(
+            new ColumnSettings("B", false, "50px"),
+            new ColumnSettings("A", true, "120px")));
+
+
+    @Test
+    public void changesAreReadInOrder() throws IOException {
+        List<GridLayoutDelta> deltas = GridLayoutJournal.read(journal(), SNAPSHOT_CHECKSUM);
+        Assert.assertEquals(2, deltas.size());
+        Assert.assertEquals(RESIZED, deltas.get(0).applyTo(SNAPSHOT));
+        Assert.assertEquals(REORDERED, deltas.get(1).applyTo(deltas.get(0).applyTo(SNAPSHOT)));
+    }
+
+    @Test
+    public void tornLastRecordIsIgnored() throws IOException {
+        byte[] journal = journal();
+        for (int cut = 1; cut < GridLayoutJournal.encodeRecord(GridLayoutDelta.between(RESIZED, REORDERED)).length; cut++) {
+            List<GridLayoutDelta> deltas = GridLayoutJournal.read(Arrays.copyOf(journal, journal.length - cut), SNAPSHOT_CHECKSUM);
+            Assert.assertEquals(1, deltas.size());
+            Assert.assertEquals(RESIZED, deltas.get(0).applyTo(SNAPSHOT));
+        }
+    }
+
+    @Test
+    public void journalOfOtherSnapshotIsIgnored() throws IOException {
+        Assert.assertTrue(GridLayoutJournal.read(journal(), SNAPSHOT_CHECKSUM + 1).isEmpty());
+        Assert.assertTrue(GridLayoutJournal.read(new byte[0], SNAPSHOT_CHECKSUM).isEmpty());
+    }
+
+
+    private static byte[] journal() throws IOException {
+        ByteArrayOutputStream journal = new ByteArrayOutputStream();
+        journal.write(GridLayoutJournal.encodeHeader(SNAPSHOT_CHECKSUM));
+        journal.write(GridLayoutJournal.encodeRecord(GridLayoutDelta.between(SNAPSHOT, RESIZED)));
+        journal.write(GridLayoutJournal.encodeRecord(GridLayoutDelta.between(RESIZED, REORDERED)));
+        return journal.toByteArray();
+    }
+}
@@ -0,0 +1,138 @@
+package org.vaadin.example.gridsettings;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class GridSettingsWriterTest {
+
+    private static final long WAIT_MILLIS = 5_000;
+
+    private final RecordingStore store = new RecordingStore();
+    private GridSettingsWriter writer;
+
+
+    @After
+    public void shutdownWriter() {
+        if (writer != null) writer.shutdown();
+    }
+
+
+    @Test
+    public void changesAreCoalesced() throws IOException {
+        writer = new GridSettingsWriter(() -> store, 10_000);
+        writer.submit("v4_Grid", layout("1px"));
+        writer.submit("v4_Grid", layout("2px"));
+        writer.submit("v4_Grid", layout("3px"));
+        Assert.assertEquals(layout("3px"), writer.getPending("v4_Grid"));
+        Assert.assertTrue(store.batches.isEmpty());
+
+        writer.flushAll();
+        Assert.assertEquals(1, store.batches.size());
+        Assert.assertEquals(Collections.singletonMap("v4_Grid", layout("3px")), store.batches.get(0));
+        Assert.assertNull(writer.getPending("v4_Grid"));
+    }
+
+
+    @Test
+    public void constantChangesDontPostponeWriting() throws InterruptedException {
+        writer = new GridSettingsWriter(() -> store, 100);
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1_000);
+        int width = 0;
+        while (System.nanoTime() < end) {
+            writer.submit("v4_Grid", layout(++width + "px"));
+            Thread.sleep(10);
+        }
+        // Written at the end of window of the first change, while changes went on
+        Assert.assertFalse(store.batches.isEmpty());
+    }
+
+
+    @Test
+    public void failedWriteIsRetriedWithGrowingDelay() throws IOException, InterruptedException {
+        store.failuresLeft.set(3);
+        writer = new GridSettingsWriter(() -> store, 20);
+        writer.submit("v4_Grid", layout("1px"));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT_MILLIS);
+        while (!store.load("v4_Grid").isPresent() && System.nanoTime() < deadline) Thread.sleep(5);
+        Assert.assertEquals(Optional.of(layout("1px")), store.load("v4_Grid"));
+        List<Long> attempts = store.attemptNanos;
+        Assert.assertEquals(4, attempts.size());
+        // Retry delays 40, 80 and 160 ms
+        long firstDelay = attempts.get(1) - attempts.get(0);
+        long lastDelay = attempts.get(3) - attempts.get(2);
+        Assert.assertTrue(firstDelay >= TimeUnit.MILLISECONDS.toNanos(40));
+        Assert.assertTrue(lastDelay >= TimeUnit.MILLISECONDS.toNanos(160));
+        Assert.assertTrue(lastDelay > firstDelay);
+    }
+
+
+    @Test
+    public void writtenLayoutReplacesQueuedOne() throws IOException {
+        writer = new GridSettingsWriter(() -> store, 10_000);
+        writer.submit("v4_Grid", layout("1px"));
+        writer.submit("v4_Other", layout("1px"));
+
+        writer.writeAll(Collections.singletonMap("v4_Grid", layout("2px")));
+        Assert.assertNull(writer.getPending("v4_Grid"));
+        Assert.assertEquals(Optional.of(layout("2px")), store.load("v4_Grid"));
+
+        // Older queued layout never overwrites written one
+        writer.flushAll();
+        Assert.assertEquals(Optional.of(layout("2px")), store.load("v4_Grid"));
+        Assert.assertEquals(Optional.of(layout("1px")), store.load("v4_Other"));
+        Assert.assertEquals(2, store.batches.size());
+    }
+
+
+    private static GridLayout layout(String width) {
+        return new GridLayout(Collections.singletonList(new ColumnSettings("A", true, width)));
+    }
+
+
+    /**
+     * Store recording written batches, it fails requested count of times
+     */
+    private static class RecordingStore implements GridSettingsStore {
+
+        private final Map<String, GridLayout> layouts = new ConcurrentHashMap<>();
+        private final List<Map<String, GridLayout>> batches = new CopyOnWriteArrayList<>();
+        private final List<Long> attemptNanos = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public Optional<GridLayout> load(String settingsName) {
+            return Optional.ofNullable(layouts.get(settingsName));
+        }
+
+        @Override
+        public void save(String settingsName, GridLayout layout) throws IOException {
+            saveAll(Collections.singletonMap(settingsName, layout));
+        }
+
+        @Override
+        public List<String> getSettingsNames(String prefix) {
+            return new ArrayList<>(layouts.keySet());
+        }
+
+        @Override
+        public void saveAll(Map<String, GridLayout> layouts) throws IOException {
+            attemptNanos.add(System.nanoTime());
+            if (failuresLeft.getAndDecrement() > 0) throw new IOException("Store is not available");
+            batches.add(layouts);
+            this.layouts.putAll(layouts);
+        }
+    }
+}
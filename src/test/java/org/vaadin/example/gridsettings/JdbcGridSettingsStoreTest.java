@@ -0,0 +1,83 @@
+package org.vaadin.example.gridsettings;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+
+
+public class JdbcGridSettingsStoreTest {
+
+    private static final GridLayout LAYOUT = new GridLayout(Arrays.asList(
+            new ColumnSettings("A", true, "100px"),
+            new ColumnSettings("B", false, null)));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public TestName testName = new TestName();
+
+    private JdbcConnectionPool dataSource;
+    private JdbcGridSettingsStore store;
+
+
+    @Before
+    public void createStore() throws IOException {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + testName.getMethodName() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        store = new JdbcGridSettingsStore(dataSource);
+    }
+
+    @After
+    public void dropDatabase() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        dataSource.dispose();
+    }
+
+
+    @Test
+    public void savedLayoutsAreLoadedAndListed() throws IOException, InterruptedException {
+        store.save("v4_Grid_1", LAYOUT);
+        Thread.sleep(10);
+        store.saveAll(Collections.singletonMap("v4_Grid_2", LAYOUT));
+        Thread.sleep(10);
+        store.save("v4_Other", LAYOUT);
+
+        Assert.assertEquals(Optional.of(LAYOUT), store.load("v4_Grid_1"));
+        Assert.assertEquals(Optional.empty(), store.load("v4_Grid_3"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("v4_Grid_1", "v4_Grid_2")), new HashSet<>(store.getSettingsNames("v4_Grid_")));
+        Assert.assertEquals(Arrays.asList("v4_Other", "v4_Grid_2"), store.getRecentSettingsNames(2));
+        // Table and index already exist
+        new JdbcGridSettingsStore(dataSource);
+    }
+
+
+    @Test
+    public void settingsFolderIsImportedOnce() throws IOException {
+        FileGridSettingsStore fileStore = new FileGridSettingsStore(folder.getRoot().toPath());
+        for (int i = 0; i < 7; i++) fileStore.save("v4_Grid_" + i, LAYOUT);
+
+        Assert.assertEquals(7, store.importIfEmpty(fileStore, 3));
+        Assert.assertEquals(7, store.getSettingsNames("v4_").size());
+        Assert.assertEquals(Optional.of(LAYOUT), store.load("v4_Grid_5"));
+
+        fileStore.save("v4_Grid_7", LAYOUT);
+        Assert.assertEquals(0, store.importIfEmpty(fileStore, 3));
+        Assert.assertEquals(Optional.empty(), store.load("v4_Grid_7"));
+    }
+}
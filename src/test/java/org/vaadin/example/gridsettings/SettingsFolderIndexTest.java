@@ -0,0 +1,67 @@
+package org.vaadin.example.gridsettings;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+
+public class SettingsFolderIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    @Test
+    public void addedNamesAreLoaded() throws IOException {
+        Path indexFile = folder.getRoot().toPath().resolve(FileGridSettingsStore.INDEX_FILE_NAME);
+        SettingsFolderIndex index = new SettingsFolderIndex(indexFile);
+        index.add("v4_ProvincesGrid", 0x12);
+        index.add("v4_ProvincesGrid", 0x12);
+        index.add("v4_CountriesGrid_user", 0xFF);
+        SettingsFolderIndex loaded = new SettingsFolderIndex(indexFile);
+        loaded.load();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("v4_ProvincesGrid", "v4_CountriesGrid_user")), loaded.getNames());
+    }
+
+
+    @Test
+    public void tornLastRecordIsCutOff() throws IOException {
+        Path indexFile = folder.getRoot().toPath().resolve(FileGridSettingsStore.INDEX_FILE_NAME);
+        SettingsFolderIndex index = new SettingsFolderIndex(indexFile);
+        index.add("first", 1);
+        long validLength = Files.size(indexFile);
+        index.add("second", 2);
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(indexFile) - 1);
+        }
+
+        SettingsFolderIndex loaded = new SettingsFolderIndex(indexFile);
+        loaded.load();
+        Assert.assertEquals(Collections.singleton("first"), loaded.getNames());
+        Assert.assertEquals(validLength, Files.size(indexFile));
+
+        // Next record follows the last complete one
+        loaded.add("third", 3);
+        SettingsFolderIndex reloaded = new SettingsFolderIndex(indexFile);
+        reloaded.load();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("first", "third")), reloaded.getNames());
+    }
+
+
+    @Test(expected = IOException.class)
+    public void malformedIndexIsRejected() throws IOException {
+        Path indexFile = folder.getRoot().toPath().resolve(FileGridSettingsStore.INDEX_FILE_NAME);
+        Files.write(indexFile, new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01});
+        new SettingsFolderIndex(indexFile).load();
+    }
+}